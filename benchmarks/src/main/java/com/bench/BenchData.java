@@ -0,0 +1,100 @@
+package com.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic, seeded inputs shaped like the New Chat screen: display names, row resource-ids, bounds
+ * strings and whole page sources with A–Z / # sections.
+ */
+public final class BenchData {
+
+    private static final String[] FIRST = {"Aarav", "Bella", "Chen", "Diya", "Élodie", "Farah", "Gabe", "Hana",
+            "İsmail", "Jade", "Kiran", "Liam", "Maya", "Nikhil", "Olivia", "Priya", "Quinn", "Ravi", "Søren", "Tara",
+            "Uma", "Vikram", "Wen", "Ximena", "Yash", "Zoë", "_sam", "1nick", "ßtefan", "Ødegaard"};
+    private static final String[] LAST = {"Best Friend", "Busy", "Family", "K", "M", "Patel", "Rao", "S", "Singh",
+            "W", "😀", "de la Cruz", "O'Brien", "Pinned"};
+
+    private BenchData() {}
+
+    public static List<String> names(int n, long seed) {
+        Random r = new Random(seed);
+        List<String> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            out.add(FIRST[r.nextInt(FIRST.length)] + " " + LAST[r.nextInt(LAST.length)] + (r.nextInt(4) == 0 ? " " + i : ""));
+        }
+        return out;
+    }
+
+    /** Comma-separated list of {@code n} tokens, as a config value ({@code a, b ,c}) with stray spaces. */
+    public static String csv(int n, long seed) {
+        Random r = new Random(seed);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(r.nextBoolean() ? "," : " , ");
+            sb.append(FIRST[r.nextInt(FIRST.length)]).append(i);
+        }
+        return sb.toString();
+    }
+
+    /** Resource-ids as seen while scanning all views: mostly rows and widgets, some section letters. */
+    public static List<String> resourceIds(int n, long seed) {
+        Random r = new Random(seed);
+        List<String> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            out.add(switch (r.nextInt(6)) {
+                case 0 -> String.valueOf((char) ('A' + r.nextInt(26)));
+                case 1 -> "#";
+                case 2 -> "com.snapchat.android:id/" + (char) ('A' + r.nextInt(26));
+                case 3 -> "";
+                default -> "select_recipients_friends_u" + i;
+            });
+        }
+        return out;
+    }
+
+    public static List<String> bounds(int n, long seed) {
+        Random r = new Random(seed);
+        List<String> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int top = r.nextInt(2400);
+            out.add("[" + r.nextInt(100) + "," + top + "][" + (980 + r.nextInt(100)) + "," + (top + 160) + "]");
+        }
+        return out;
+    }
+
+    /** UiAutomator2-style page source with {@code rows} friend rows grouped into sections. */
+    public static String pageSource(int rows, long seed) {
+        List<String> names = names(rows, seed);
+        names.sort(String::compareToIgnoreCase);
+        StringBuilder sb = new StringBuilder(rows * 700);
+        sb.append("<?xml version='1.0' encoding='UTF-8' standalone='yes' ?>\n<hierarchy index=\"0\" class=\"hierarchy\" rotation=\"0\" width=\"1080\" height=\"2400\">\n");
+        sb.append("<android.view.View index=\"0\" package=\"com.snapchat.android\" class=\"android.view.View\" text=\"\" resource-id=\"select_recipients_list\" displayed=\"true\" bounds=\"[0,400][1080,2400]\">\n");
+        String section = null;
+        int y = 400;
+        for (int i = 0; i < rows; i++) {
+            String name = names.get(i);
+            char c = Character.toUpperCase(name.charAt(0));
+            String s = c >= 'A' && c <= 'Z' ? String.valueOf(c) : "#";
+            if (!s.equals(section)) {
+                if (section != null) sb.append("</android.view.View>\n");
+                section = s;
+                sb.append("<android.view.View index=\"0\" package=\"com.snapchat.android\" class=\"android.view.View\" text=\"\" resource-id=\"")
+                        .append(s).append("\" displayed=\"true\" bounds=\"[0,").append(y).append("][1080,").append(y + 80).append("]\">\n");
+                sb.append("<android.widget.TextView index=\"0\" package=\"com.snapchat.android\" class=\"android.widget.TextView\" text=\"")
+                        .append(s).append("\" resource-id=\"\" displayed=\"true\" bounds=\"[40,").append(y + 10).append("][200,").append(y + 70).append("]\" />\n");
+                y += 80;
+            }
+            sb.append("<android.view.View index=\"").append(i).append("\" package=\"com.snapchat.android\" class=\"android.view.View\" text=\"\" resource-id=\"select_recipients_friends_u")
+                    .append(i).append("\" clickable=\"true\" displayed=\"true\" bounds=\"[0,").append(y).append("][1080,").append(y + 160).append("]\">\n");
+            sb.append("<android.widget.TextView index=\"0\" package=\"com.snapchat.android\" class=\"android.widget.TextView\" text=\"")
+                    .append(name.replace("&", "&amp;").replace("\"", "&quot;").replace("<", "&lt;"))
+                    .append("\" resource-id=\"\" displayed=\"true\" bounds=\"[200,").append(y + 45).append("][900,").append(y + 115).append("]\" />\n");
+            sb.append("</android.view.View>\n");
+            y += 160;
+        }
+        if (section != null) sb.append("</android.view.View>\n");
+        return sb.append("</android.view.View>\n</hierarchy>\n").toString();
+    }
+}
@@ -0,0 +1,71 @@
+package com.snap;
+
+import com.bench.BenchData;
+import com.utils.ConfigManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token matching done for every friend ({@code shouldProcessFriend}, the send group and unfriend
+ * protection checks of {@code sendMessageOrUnfriend}) over a synthetic roster.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FriendRulesBenchmark {
+
+    @Param({"10000", "100000"})
+    public int friends;
+
+    /** Tokens per rule list; real configs have a handful, imported group lists a few hundred. */
+    @Param({"8", "256"})
+    public int tokens;
+
+    private List<String> names;
+    private FriendRules rules;
+
+    @Setup
+    public void setup() {
+        names = BenchData.names(friends, 42);
+        System.setProperty("bench.send.only.to", BenchData.csv(tokens, 7) + ",patel,o'brien");
+        System.setProperty("bench.unfriend.skip", BenchData.csv(tokens, 11) + ",Best Friend,Family,Pinned");
+        rules = new FriendRules(ConfigManager.getMatcher("bench.send.only.to"), true,
+                ConfigManager.getMatcher("bench.unfriend.skip"));
+    }
+
+    @Benchmark
+    public int shouldProcess() {
+        int n = 0;
+        for (String name : names) if (rules.shouldProcess(name)) n++;
+        return n;
+    }
+
+    @Benchmark
+    public int inSendGroup() {
+        int n = 0;
+        for (String name : names) if (rules.inSendGroup(name)) n++;
+        return n;
+    }
+
+    @Benchmark
+    public int protectingToken() {
+        int n = 0;
+        for (String name : names) if (rules.protectingToken(name) != null) n++;
+        return n;
+    }
+}
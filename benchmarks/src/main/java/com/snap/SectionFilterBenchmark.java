@@ -0,0 +1,49 @@
+package com.snap;
+
+import com.bench.BenchData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The section filter of {@code findSections}: one {@link Snap#isSectionId} call per view of a page-source
+ * snapshot, for every scroll window of the roster scan and the snapshot traversal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SectionFilterBenchmark {
+
+    @Param({"10000", "100000"})
+    public int views;
+
+    private List<String> resourceIds;
+
+    @Setup
+    public void setup() {
+        resourceIds = BenchData.resourceIds(views, 42);
+    }
+
+    @Benchmark
+    public int isSectionId() {
+        int sections = 0;
+        for (String rid : resourceIds) {
+            if (Snap.isSectionId(rid)) sections++;
+        }
+        return sections;
+    }
+}
@@ -0,0 +1,58 @@
+package com.utils;
+
+import com.bench.BenchData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds parsing as done in {@code scrollElementIntoViewSafe}: the allocation-free
+ * {@link UiSnapshot#parseBounds} against the original replace/split/parseInt version.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoundsParseBenchmark {
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    private List<String> bounds;
+    private final int[] out = new int[4];
+
+    @Setup
+    public void setup() {
+        bounds = BenchData.bounds(size, 42);
+    }
+
+    @Benchmark
+    public void parseBounds(Blackhole bh) {
+        for (String b : bounds) {
+            bh.consume(UiSnapshot.parseBounds(b, out, 0));
+            bh.consume(out[1] + out[3]);
+        }
+    }
+
+    @Benchmark
+    public void replaceSplitBaseline(Blackhole bh) {
+        for (String b : bounds) {
+            String[] parts = b.replace("[", "").replace("]", ",").split(",");
+            bh.consume(Integer.parseInt(parts[1].trim()) + Integer.parseInt(parts[3].trim()));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.utils;
+
+import com.bench.BenchData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ConfigManager#getList} / {@link ConfigManager#getSetLowerCase} / {@link ConfigManager#getMatcher} on large CSV values (passed as a
+ * system property, which overrides the properties file).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigManagerBenchmark {
+
+    private static final String KEY = "bench.tokens";
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    @Setup
+    public void setup() {
+        System.setProperty(KEY, BenchData.csv(size, 42));
+    }
+
+    @Benchmark
+    public List<String> getList() {
+        return ConfigManager.getList(KEY);
+    }
+
+    @Benchmark
+    public Set<String> getSetLowerCase() {
+        return ConfigManager.getSetLowerCase(KEY);
+    }
+
+    @Benchmark
+    public KeywordMatcher getMatcher() {
+        return ConfigManager.getMatcher(KEY);
+    }
+}
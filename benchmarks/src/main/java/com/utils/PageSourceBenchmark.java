@@ -0,0 +1,59 @@
+package com.utils;
+
+import com.bench.BenchData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot-mode host work per step: parsing a large page source and resolving friend rows and their
+ * names with compiled locators.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PageSourceBenchmark {
+
+    private static final Locator FRIENDS = Locator.compile("//android.view.View[starts-with(@resource-id,'select_recipients_friends')]");
+    private static final Locator NAME = Locator.compile(".//android.widget.TextView[1]");
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private String xml;
+    private UiSnapshot parsed;
+
+    @Setup
+    public void setup() {
+        xml = BenchData.pageSource(rows, 42);
+        parsed = UiSnapshot.parse(xml);
+    }
+
+    @Benchmark
+    public UiSnapshot parse() {
+        return UiSnapshot.parse(xml);
+    }
+
+    @Benchmark
+    public int resolveFriendNames() {
+        int chars = 0;
+        for (int row : FRIENDS.findIn(parsed, -1)) {
+            int name = NAME.findFirstIn(parsed, row);
+            if (name >= 0) chars += parsed.text(name).length();
+        }
+        return chars;
+    }
+}
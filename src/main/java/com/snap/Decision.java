@@ -0,0 +1,14 @@
+package com.snap;
+
+/**
+ * What {@link Snap#sendMessageOrUnfriend(String)} decided for one friend.
+ */
+enum Decision {
+    SEND,
+    SEND_FALLBACK,
+    SKIP_NOT_IN_SEND_GROUP,
+    UNFRIEND,
+    SKIP_UNFRIEND_DISABLED,
+    SKIP_UNFRIEND_PROTECTED,
+    ERROR
+}
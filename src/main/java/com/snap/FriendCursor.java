@@ -0,0 +1,80 @@
+package com.snap;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Traversal cursor over friend rows keyed by identity (name + row resource-id) instead of list position.
+ * <p>
+ * Rows that shift after an unfriend or a re-render are neither skipped nor repeated: {@link #next(List)}
+ * resumes right after the last processed friend and only returns rows that were never visited.
+ */
+final class FriendCursor {
+
+    /** Identity of one friend row. */
+    record FriendKey(String name, String rowId) {
+        FriendKey {
+            name = name == null ? "" : name;
+            rowId = rowId == null ? "" : rowId;
+        }
+    }
+
+    private final Set<FriendKey> visited = new HashSet<>();
+    private FriendKey last;
+    private int lastIndex = -1; // position of `last` in the previous rows list, checked before indexOf
+
+    /**
+     * Index of the next unvisited row in {@code rows} (screen order), or -1 when every row was visited.
+     * Scanning starts after the last processed friend and wraps, so rows that moved up are still seen.
+     */
+    int next(List<FriendKey> rows) {
+        int n = rows.size();
+        if (n == 0) return -1;
+        int start = 0;
+        if (last != null) {
+            int pos = lastIndex >= 0 && lastIndex < n && last.equals(rows.get(lastIndex)) ? lastIndex : rows.indexOf(last);
+            if (pos >= 0) start = pos + 1;
+            else if (lastIndex >= 0 && lastIndex < n) start = lastIndex; // last row was removed; its successor moved up
+        }
+        for (int k = 0; k < n; k++) {
+            int i = (start + k) % n;
+            if (!visited.contains(rows.get(i))) {
+                lastIndex = i;
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Seed from a journal: everything already processed is visited and traversal resumes after the checkpoint. */
+    void resumeFrom(Set<FriendKey> processed, FriendKey checkpoint) {
+        visited.addAll(processed);
+        last = checkpoint;
+        lastIndex = -1;
+    }
+
+    /**
+     * Forget the position, keeping what was visited: the next {@link #next(List)} scans from the top. Called
+     * when moving on to another list (a roster section), where the last friend of the previous one never appears
+     * and its old index means nothing.
+     */
+    void resetPosition() {
+        last = null;
+        lastIndex = -1;
+    }
+
+    /** Mark a friend processed; called before acting so a failing friend is not retried forever. */
+    void markVisited(FriendKey key) {
+        visited.add(key);
+        last = key;
+    }
+
+    boolean isVisited(FriendKey key) {
+        return visited.contains(key);
+    }
+
+    int visitedCount() {
+        return visited.size();
+    }
+}
@@ -0,0 +1,62 @@
+package com.snap;
+
+import com.utils.KeywordMatcher;
+
+/**
+ * Name-based rules from config ({@code send.only.to}, {@code unfriend.enable},
+ * {@code unfriend.skip.if.contains}). Pure functions of the friend name, evaluated for every friend;
+ * kept apart from {@link Snap} so they can be measured without a device (see the benchmarks module).
+ */
+final class FriendRules {
+
+    private final KeywordMatcher sendOnlyTo;
+    private final boolean unfriendEnabled;
+    private final KeywordMatcher unfriendSkipContains;
+
+    FriendRules(KeywordMatcher sendOnlyTo, boolean unfriendEnabled, KeywordMatcher unfriendSkipContains) {
+        this.sendOnlyTo = sendOnlyTo;
+        this.unfriendEnabled = unfriendEnabled;
+        this.unfriendSkipContains = unfriendSkipContains;
+    }
+
+    KeywordMatcher sendOnlyTo() {
+        return sendOnlyTo;
+    }
+
+    boolean unfriendEnabled() {
+        return unfriendEnabled;
+    }
+
+    KeywordMatcher unfriendSkipContains() {
+        return unfriendSkipContains;
+    }
+
+    /** True when {@code send.only.to} is empty (no restriction) or one of its tokens occurs in the name. */
+    boolean inSendGroup(String name) {
+        return sendOnlyTo.isEmpty() || sendOnlyTo.matches(name);
+    }
+
+    /** The {@code unfriend.skip.if.contains} token protecting this name from unfriend, or null. */
+    String protectingToken(String name) {
+        return unfriendSkipContains.find(name);
+    }
+
+    /**
+     * What to do without opening the chat when the relationship is already known: the skip decision, or null
+     * when there is work to do (a mutual friend to message, a non-mutual one to unfriend).
+     */
+    Decision skipDecision(String name, boolean mutual) {
+        if (mutual) return inSendGroup(name) ? null : Decision.SKIP_NOT_IN_SEND_GROUP;
+        if (!unfriendEnabled) return Decision.SKIP_UNFRIEND_DISABLED;
+        return protectingToken(name) != null ? Decision.SKIP_UNFRIEND_PROTECTED : null;
+    }
+
+    /**
+     * False (skip the friend) for empty names, and when unfriend is disabled and the friend is not in the
+     * {@code send.only.to} group — nothing could be done for them.
+     */
+    boolean shouldProcess(String name) {
+        if (name == null || name.isBlank()) return false;
+        return unfriendEnabled || inSendGroup(name);
+    }
+}
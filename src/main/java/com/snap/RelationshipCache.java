@@ -0,0 +1,160 @@
+package com.snap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Friendship status per friend, kept across runs so repeat runs decide without opening every chat.
+ * <p>
+ * Only what a chat probe actually observed is stored, with the time it was observed; an entry older than the
+ * TTL counts as unknown and the chat is probed again. An entry only skips work that is harmless when it is
+ * wrong (the probe before messaging, opening a chat that needs no action), never an unfriend. Entries are invalidated when the status is known to be
+ * gone (friend removed) or in doubt (the action failed). The file ({@code relationships.tsv}) is a log of
+ * {@code observedAtMillis, status, name, rowId} lines where the last line per friend wins; it is compacted
+ * on open and every change is appended and flushed right away.
+ */
+final class RelationshipCache implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(RelationshipCache.class);
+
+    private static final String INVALID = "INVALID";
+
+    /** What the chat header showed: a mutual friend (call buttons) or not (Add button). */
+    enum Relationship {
+        MUTUAL,
+        NOT_MUTUAL
+    }
+
+    private record Entry(Relationship relationship, long observedAt) { }
+
+    private final Path file;
+    private final long ttlMillis;
+    private final Map<FriendCursor.FriendKey, Entry> entries = new HashMap<>();
+    private BufferedWriter out;
+
+    private RelationshipCache(Path file, Duration ttl) {
+        this.file = file;
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    /** Open (or create) the cache file in {@code dir}; {@code clear} starts from an empty cache. */
+    static RelationshipCache open(Path dir, Duration ttl, boolean clear) {
+        RelationshipCache cache = new RelationshipCache(dir.resolve("relationships.tsv"), ttl);
+        try {
+            Files.createDirectories(dir);
+            if (clear) log.info("Relationship cache cleared");
+            else cache.load();
+            cache.compact();
+            cache.out = Files.newBufferedWriter(cache.file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open relationship cache in " + dir, e);
+        }
+        log.info("Relationship cache: {} friends known (ttl {} h)", cache.entries.size(), ttl.toHours());
+        return cache;
+    }
+
+    /** The cached relationship, or null when unknown or older than the TTL. */
+    synchronized Relationship get(FriendCursor.FriendKey key) {
+        Entry e = entries.get(key);
+        if (e == null) return null;
+        if (expired(e, System.currentTimeMillis())) {
+            entries.remove(key);
+            return null;
+        }
+        return e.relationship();
+    }
+
+    /** Record what a chat probe just observed. */
+    synchronized void put(FriendCursor.FriendKey key, Relationship relationship) {
+        Entry e = new Entry(relationship, System.currentTimeMillis());
+        entries.put(key, e);
+        append(e.observedAt(), relationship.name(), key);
+    }
+
+    /** Forget a friend, so the next run probes the chat again. */
+    synchronized void invalidate(FriendCursor.FriendKey key) {
+        if (entries.remove(key) != null) append(System.currentTimeMillis(), INVALID, key);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            if (out != null) out.close();
+        } catch (IOException e) {
+            log.warn("Error closing relationship cache: {}", e.getMessage());
+        }
+        out = null;
+    }
+
+    private void append(long at, String status, FriendCursor.FriendKey key) {
+        if (out == null) return;
+        try {
+            out.write(at + "\t" + status + "\t" + RunJournal.escape(key.name()) + "\t" + RunJournal.escape(key.rowId()) + "\n");
+            out.flush();
+        } catch (IOException e) {
+            // the cache only saves probes; losing it must not stop the run
+            log.warn("Could not append to relationship cache: {}", e.getMessage());
+        }
+    }
+
+    private void load() throws IOException {
+        if (!Files.exists(file)) return;
+        long now = System.currentTimeMillis();
+        int skipped = 0;
+        try (BufferedReader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                String[] f = line.split("\t", -1);
+                try {
+                    if (f.length < 4) throw new IllegalArgumentException("torn line");
+                    FriendCursor.FriendKey key = new FriendCursor.FriendKey(RunJournal.unescape(f[2]), RunJournal.unescape(f[3]));
+                    if (INVALID.equals(f[1])) {
+                        entries.remove(key);
+                        continue;
+                    }
+                    Entry e = new Entry(Relationship.valueOf(f[1]), Long.parseLong(f[0]));
+                    if (expired(e, now)) entries.remove(key);
+                    else entries.put(key, e);
+                } catch (IllegalArgumentException ex) {
+                    skipped++;
+                }
+            }
+        }
+        if (skipped > 0) log.warn("Ignored {} unreadable relationship cache lines", skipped);
+    }
+
+    /** Rewrite the file with only the live entries (write to a temp file, then move over the old one). */
+    private void compact() throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<FriendCursor.FriendKey, Entry> e : entries.entrySet()) {
+                FriendCursor.FriendKey key = e.getKey();
+                w.write(e.getValue().observedAt() + "\t" + e.getValue().relationship().name() + "\t"
+                        + RunJournal.escape(key.name()) + "\t" + RunJournal.escape(key.rowId()) + "\n");
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private boolean expired(Entry e, long now) {
+        return now - e.observedAt() > ttlMillis;
+    }
+}
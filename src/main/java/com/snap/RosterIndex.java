@@ -0,0 +1,92 @@
+package com.snap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * The New Chat roster read in one top-to-bottom pass: friends by section (A..Z, #) and position, in list order.
+ * <p>
+ * Scroll windows overlap, so rows are added by identity ({@link FriendCursor.FriendKey}) and a row seen
+ * again is ignored; positions are the order of first sighting within the section. {@link #write} exports
+ * it as tab-separated text ({@code roster-<time>.tsv}: a header row, then
+ * {@code section, position, rowId, name} per friend, escaped like the run journal).
+ */
+final class RosterIndex {
+    private static final Logger log = LoggerFactory.getLogger(RosterIndex.class);
+
+    private final Map<String, List<FriendCursor.FriendKey>> sections = new LinkedHashMap<>();
+    private final Set<FriendCursor.FriendKey> seen = new HashSet<>();
+
+    /** Adds a row seen in {@code section}; false when it was already indexed (overlapping window). */
+    boolean add(String section, FriendCursor.FriendKey key) {
+        if (!seen.add(key)) return false;
+        sections.computeIfAbsent(section, s -> new ArrayList<>()).add(key);
+        return true;
+    }
+
+    int size() {
+        return seen.size();
+    }
+
+    /** Section ids in list order. */
+    List<String> sections() {
+        return List.copyOf(sections.keySet());
+    }
+
+    /** Friends of one section in list order (empty for an unknown section). */
+    List<FriendCursor.FriendKey> friends(String section) {
+        return Collections.unmodifiableList(sections.getOrDefault(section, List.of()));
+    }
+
+    /** How many indexed friends satisfy {@code test} (e.g. the friend rules), without touching the device. */
+    long count(Predicate<FriendCursor.FriendKey> test) {
+        return seen.stream().filter(test).count();
+    }
+
+    /** Logs the size and layout of the roster: friends per section. */
+    void logSummary() {
+        StringBuilder layout = new StringBuilder();
+        sections.forEach((section, friends) -> layout.append(section).append('=').append(friends.size()).append(' '));
+        log.info("📇 Roster: {} friends in {} sections [{}]", size(), sections.size(), layout.toString().trim());
+    }
+
+    /** Writes {@code roster-<time>.tsv} into {@code dir} and returns its path. */
+    Path write(Path dir) {
+        Path file = dir.resolve("roster-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".tsv");
+        try {
+            Files.createDirectories(dir);
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                out.write("section\tposition\trowId\tname\n");
+                for (Map.Entry<String, List<FriendCursor.FriendKey>> section : sections.entrySet()) {
+                    List<FriendCursor.FriendKey> friends = section.getValue();
+                    for (int i = 0; i < friends.size(); i++) {
+                        FriendCursor.FriendKey key = friends.get(i);
+                        out.write(RunJournal.escape(section.getKey()) + "\t" + i + "\t"
+                                + RunJournal.escape(key.rowId()) + "\t" + RunJournal.escape(key.name()) + "\n");
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write roster to " + file, e);
+        }
+        log.info("Roster exported to {}", file);
+        return file;
+    }
+}
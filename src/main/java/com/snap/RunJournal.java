@@ -0,0 +1,255 @@
+package com.snap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of per-friend decisions so a crashed run resumes instead of starting over.
+ * <p>
+ * Records go to numbered segment files ({@code segment-000001.log}, ...), one CRC-protected line each.
+ * Every record is written straight to the file (it survives a JVM or Appium crash); {@code force()} is
+ * batched every {@link #SYNC_EVERY} records or {@link #SYNC_INTERVAL_MS}. A friend is journaled as
+ * STARTED before its chat is opened, so after a crash it counts as processed (at most one message).
+ * A friend's last record decides: a FAILED outcome (message not confirmed, unfriend not completed, error)
+ * leaves it unprocessed, so a resumed run tries it again. A torn last line fails its CRC and is ignored.
+ * When a run finishes, its segments move to an archive folder and the next launch starts a fresh run.
+ */
+final class RunJournal implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(RunJournal.class);
+
+    private static final int SYNC_EVERY = 8;
+    private static final long SYNC_INTERVAL_MS = 2000;
+    private static final long SEGMENT_MAX_BYTES = 8L * 1024 * 1024;
+    private static final String COMPLETE = "COMPLETE";
+    private static final String STARTED = "STARTED";
+    private static final String FAILED = "FAILED";
+
+    private final Path dir;
+    private final Set<FriendCursor.FriendKey> processed = new HashSet<>();
+    private FriendCursor.FriendKey lastProcessed;
+    private int inDoubt;
+
+    private FileChannel channel;
+    private Path segmentPath;
+    private int segment;
+    private int unsynced;
+    private long lastSync = System.currentTimeMillis();
+
+    private RunJournal(Path dir) {
+        this.dir = dir;
+    }
+
+    /** Open (or create) the journal in {@code dir}, replaying unfinished runs. */
+    static RunJournal open(Path dir) {
+        RunJournal journal = new RunJournal(dir);
+        try {
+            Files.createDirectories(dir);
+            journal.replay();
+            journal.openNextSegment();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open run journal in " + dir, e);
+        }
+        return journal;
+    }
+
+    /** Friends an earlier, interrupted run handled (or may have handled); the cursor skips them. */
+    Set<FriendCursor.FriendKey> processed() {
+        return processed;
+    }
+
+    /** Last friend journaled by the interrupted run (the checkpoint), or null. */
+    FriendCursor.FriendKey lastProcessed() {
+        return lastProcessed;
+    }
+
+    /** Intent record, written before the chat is opened. */
+    void started(FriendCursor.FriendKey key) {
+        append(STARTED, "", key);
+    }
+
+    /** Decision and outcome from sendMessageOrUnfriend. */
+    void finished(FriendCursor.FriendKey key, Decision decision, boolean ok) {
+        append(decision.name(), ok ? "OK" : FAILED, key);
+    }
+
+    /** Marks the run complete and archives its segments so the next launch starts fresh. */
+    void complete() {
+        append(COMPLETE, "", new FriendCursor.FriendKey("", ""));
+        try {
+            sync();
+            channel.close();
+            Path archive = dir.resolve("archive-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+            Files.createDirectories(archive);
+            for (Path p : segments()) Files.move(p, archive.resolve(p.getFileName()));
+            log.info("Run journal complete; segments archived to {}", archive);
+            processed.clear();
+            lastProcessed = null;
+            openNextSegment();
+        } catch (IOException e) {
+            log.warn("Could not archive run journal: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (channel != null && channel.isOpen()) {
+                sync();
+                boolean empty = channel.size() == 0;
+                channel.close();
+                if (empty) Files.deleteIfExists(segmentPath);
+            }
+        } catch (IOException e) {
+            log.warn("Error closing run journal: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void append(String type, String outcome, FriendCursor.FriendKey key) {
+        String body = System.currentTimeMillis() + "\t" + type + "\t" + outcome + "\t"
+                + escape(key.name()) + "\t" + escape(key.rowId());
+        byte[] line = (crc(body) + "\t" + body + "\n").getBytes(StandardCharsets.UTF_8);
+        try {
+            if (channel.size() + line.length > SEGMENT_MAX_BYTES) {
+                sync();
+                channel.close();
+                openNextSegment();
+            }
+            ByteBuffer buf = ByteBuffer.wrap(line);
+            while (buf.hasRemaining()) channel.write(buf);
+            if (!COMPLETE.equals(type)) {
+                if (FAILED.equals(outcome)) processed.remove(key);
+                else processed.add(key);
+                lastProcessed = key;
+            }
+            if (++unsynced >= SYNC_EVERY || System.currentTimeMillis() - lastSync >= SYNC_INTERVAL_MS) sync();
+        } catch (IOException e) {
+            // losing the journal must not stop the run; it only weakens resume
+            log.warn("Could not append to run journal: {}", e.getMessage());
+        }
+    }
+
+    private void sync() throws IOException {
+        if (unsynced == 0) return;
+        channel.force(false);
+        unsynced = 0;
+        lastSync = System.currentTimeMillis();
+    }
+
+    private void replay() throws IOException {
+        // last record per friend: STARTED (in doubt), OK or FAILED
+        Map<FriendCursor.FriendKey, String> last = new HashMap<>();
+        int corrupt = 0;
+        for (Path p : segments()) {
+            segment = Math.max(segment, segmentNumber(p));
+            try (BufferedReader r = Files.newBufferedReader(p, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = r.readLine()) != null) {
+                    int tab = line.indexOf('\t');
+                    if (tab < 0 || !line.substring(0, tab).equals(crc(line.substring(tab + 1)))) {
+                        corrupt++;
+                        continue;
+                    }
+                    String[] f = line.substring(tab + 1).split("\t", -1);
+                    if (f.length < 5) {
+                        corrupt++;
+                        continue;
+                    }
+                    if (COMPLETE.equals(f[1])) {
+                        last.clear();
+                        lastProcessed = null;
+                        continue;
+                    }
+                    FriendCursor.FriendKey key = new FriendCursor.FriendKey(unescape(f[3]), unescape(f[4]));
+                    last.put(key, STARTED.equals(f[1]) ? STARTED : f[2]);
+                    lastProcessed = key;
+                }
+            }
+        }
+        int failed = 0;
+        for (Map.Entry<FriendCursor.FriendKey, String> e : last.entrySet()) {
+            if (FAILED.equals(e.getValue())) {
+                failed++;
+                continue;
+            }
+            processed.add(e.getKey());
+            if (STARTED.equals(e.getValue())) inDoubt++;
+        }
+        if (!last.isEmpty()) {
+            log.info("Resuming run from journal: {} friends already processed ({} in doubt, counted as processed), {} failed and retried, checkpoint={}",
+                    processed.size(), inDoubt, failed, lastProcessed);
+        }
+        if (corrupt > 0) log.warn("Ignored {} torn/corrupt journal lines", corrupt);
+    }
+
+    private void openNextSegment() throws IOException {
+        segment++;
+        segmentPath = dir.resolve(String.format("segment-%06d.log", segment));
+        channel = FileChannel.open(segmentPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        unsynced = 0;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> out = new ArrayList<>(files
+                    .filter(p -> p.getFileName().toString().matches("segment-\\d+\\.log"))
+                    .toList());
+            out.sort((a, b) -> Integer.compare(segmentNumber(a), segmentNumber(b)));
+            return out;
+        }
+    }
+
+    private static int segmentNumber(Path p) {
+        String n = p.getFileName().toString();
+        return Integer.parseInt(n.substring("segment-".length(), n.length() - ".log".length()));
+    }
+
+    private static String crc(String body) {
+        CRC32 crc = new CRC32();
+        crc.update(body.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+
+    static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    static String unescape(String s) {
+        StringBuilder out = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                char n = s.charAt(++i);
+                out.append(switch (n) {
+                    case 't' -> '\t';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> n;
+                });
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,194 @@
+package com.snap;
+
+import com.utils.Locator;
+import com.utils.Metrics;
+import com.utils.UiSnapshot;
+import com.utils.UiWait;
+import com.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the way back to a fresh New Chat list from wherever a friend's flow left the app.
+ * <p>
+ * {@link #classify} names the current screen from one hierarchy snapshot (overlays first: a confirm dialog or
+ * action menu sits on top of the profile). A small transition model (back goes one screen up, the Chat tab
+ * opens New Chat) gives the shortest path by breadth-first search. The first attempt runs the whole path and
+ * checks the result once; when that lands somewhere unexpected, the next attempts go one step at a time and
+ * correct the model with what each step really did, so later friends plan with the app's actual behaviour.
+ * The screen is only classified once the UI has settled, so a half-finished transition is not taken for an
+ * unknown screen and answered with an extra BACK.
+ */
+final class ScreenNavigator {
+    private static final Logger log = LoggerFactory.getLogger(ScreenNavigator.class);
+
+    private static final Locator newChatList = Locator.compile("//android.view.View[starts-with(@resource-id,'select_recipients')]");
+    private static final int MAX_STEPS = 8;
+
+    enum Screen { CAMERA, CHAT, NEW_CHAT, CONVERSATION, PROFILE, ACTION_MENU, CONFIRM_DIALOG, UNKNOWN }
+
+    enum Action { BACK, OPEN_CHAT_TAB, OPEN_NEW_CHAT }
+
+    // checked in order: overlays before the screens they cover, the Chat tab before the camera (both show the nav bar)
+    private static final List<Map.Entry<Screen, List<Locator>>> SIGNATURES = List.of(
+            Map.entry(Screen.CONFIRM_DIALOG, List.of(Snap.remove, Snap.yes)),
+            Map.entry(Screen.ACTION_MENU, List.of(Snap.mangeFriendShip, Snap.removeFirend)),
+            Map.entry(Screen.PROFILE, List.of(Snap.otherOptions)),
+            Map.entry(Screen.CONVERSATION, List.of(Snap.messageField)),
+            Map.entry(Screen.NEW_CHAT, List.of(newChatList)),
+            Map.entry(Screen.CHAT, List.of(Snap.newChatButton)),
+            Map.entry(Screen.CAMERA, List.of(Snap.chatButton)));
+
+    private final Utils utils;
+    private final Map<Screen, Map<Action, Screen>> transitions = new EnumMap<>(Screen.class);
+
+    ScreenNavigator(Utils utils) {
+        this.utils = utils;
+        expect(Screen.CONFIRM_DIALOG, Action.BACK, Screen.ACTION_MENU);
+        expect(Screen.ACTION_MENU, Action.BACK, Screen.PROFILE);
+        expect(Screen.PROFILE, Action.BACK, Screen.CONVERSATION);
+        expect(Screen.CONVERSATION, Action.BACK, Screen.NEW_CHAT);
+        expect(Screen.NEW_CHAT, Action.BACK, Screen.CHAT);
+        expect(Screen.CHAT, Action.BACK, Screen.CAMERA);
+        expect(Screen.CHAT, Action.OPEN_NEW_CHAT, Screen.NEW_CHAT);
+        expect(Screen.CAMERA, Action.OPEN_CHAT_TAB, Screen.CHAT);
+    }
+
+    /** The screen shown in {@code ui}, or UNKNOWN. */
+    static Screen classify(UiSnapshot ui) {
+        for (Map.Entry<Screen, List<Locator>> signature : SIGNATURES) {
+            for (Locator locator : signature.getValue()) {
+                if (locator.findFirstIn(ui, -1) >= 0) return signature.getKey();
+            }
+        }
+        return Screen.UNKNOWN;
+    }
+
+    /**
+     * Go to the Chat tab and open New Chat, so the list starts at the top with nothing selected.
+     *
+     * @param from the current screen when the caller knows it (saves a snapshot), otherwise null
+     * @return true once New Chat was opened
+     */
+    boolean openNewChat(Screen from) {
+        long t0 = Metrics.start();
+        try {
+            Screen screen = from != null ? from : settledScreen();
+            boolean careful = false;
+            int steps = 0;
+            while (steps < MAX_STEPS) {
+                List<Action> path = pathToNewChat(screen);
+                if (path.isEmpty()) {
+                    // no known way from here (e.g. an unexpected popup): back out and look again
+                    log.debug("No route from {}; pressing back", screen);
+                    path = List.of(Action.BACK);
+                    careful = true;
+                }
+                if (!careful) {
+                    boolean done = true;
+                    for (Action action : path) {
+                        steps++;
+                        if (!perform(action)) {
+                            done = false;
+                            break;
+                        }
+                    }
+                    Screen reached = settledScreen();
+                    if (done && reached == Screen.NEW_CHAT) return true;
+                    log.debug("Planned route {} from {} ended on {}; continuing step by step", path, screen, reached);
+                    screen = reached;
+                    careful = true;
+                    continue;
+                }
+                Action action = path.get(0);
+                steps++;
+                boolean performed = perform(action);
+                Screen reached = settledScreen();
+                if (performed && action == Action.OPEN_NEW_CHAT && reached == Screen.NEW_CHAT) return true;
+                if (performed) learn(screen, action, reached);
+                screen = reached;
+            }
+            log.warn("Could not reach New Chat within {} steps (last screen {})", MAX_STEPS, screen);
+            return false;
+        } finally {
+            Metrics.record("navigate", t0);
+        }
+    }
+
+    /**
+     * The current screen once the UI has stopped changing. UNKNOWN is not believed at once: the snapshot is
+     * taken again, within the learned bound, until some screen's signature shows.
+     */
+    private Screen settledScreen() {
+        UiSnapshot ui = utils.waitForUiStable("navigate");
+        Screen screen = classify(ui != null ? ui : utils.snapshot());
+        if (screen != Screen.UNKNOWN) return screen;
+        Screen[] seen = {screen};
+        UiWait.until("navigate.unknown", () -> (seen[0] = classify(utils.snapshot())) != Screen.UNKNOWN);
+        return seen[0];
+    }
+
+    /** Shortest action sequence from {@code screen} to the Chat tab, then OPEN_NEW_CHAT; empty when no route is known. */
+    List<Action> pathToNewChat(Screen screen) {
+        if (screen == Screen.CHAT) return List.of(Action.OPEN_NEW_CHAT);
+        Map<Screen, Screen> previous = new EnumMap<>(Screen.class);
+        Map<Screen, Action> via = new EnumMap<>(Screen.class);
+        ArrayDeque<Screen> queue = new ArrayDeque<>();
+        queue.add(screen);
+        previous.put(screen, screen);
+        while (!queue.isEmpty()) {
+            Screen s = queue.poll();
+            for (Map.Entry<Action, Screen> edge : transitions.getOrDefault(s, Map.of()).entrySet()) {
+                Screen next = edge.getValue();
+                if (previous.containsKey(next)) continue;
+                previous.put(next, s);
+                via.put(next, edge.getKey());
+                if (next == Screen.CHAT) {
+                    List<Action> path = new ArrayList<>();
+                    path.add(Action.OPEN_NEW_CHAT);
+                    for (Screen at = Screen.CHAT; at != screen; at = previous.get(at)) path.add(via.get(at));
+                    Collections.reverse(path);
+                    return path;
+                }
+                queue.add(next);
+            }
+        }
+        return List.of();
+    }
+
+    /** Runs one action; false when a click target was not there (the screen is not what the plan assumed). */
+    private boolean perform(Action action) {
+        return switch (action) {
+            case BACK -> {
+                utils.navigateBack();
+                yield true;
+            }
+            case OPEN_CHAT_TAB -> click("openChatTab", Snap.chatButton);
+            case OPEN_NEW_CHAT -> click("openNewChat", Snap.newChatButton);
+        };
+    }
+
+    private boolean click(String action, Locator target) {
+        return utils.clickIfPresent(target) || (utils.waitForUi(action, target) && utils.clickIfPresent(target));
+    }
+
+    private void learn(Screen from, Action action, Screen observed) {
+        // UNKNOWN teaches nothing; staying put is usually transient (back only closed the keyboard)
+        if (observed == Screen.UNKNOWN || observed == from) return;
+        Screen modelled = transitions.getOrDefault(from, Map.of()).get(action);
+        if (observed == modelled) return;
+        log.info("Navigation: {} from {} leads to {} (model said {}); updating the route model", action, from, observed, modelled);
+        expect(from, action, observed);
+    }
+
+    private void expect(Screen from, Action action, Screen to) {
+        transitions.computeIfAbsent(from, s -> new EnumMap<>(Action.class)).put(action, to);
+    }
+}
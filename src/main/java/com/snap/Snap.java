@@ -1,59 +1,119 @@
 package com.snap;
 
 import com.utils.ConfigManager;
+import com.utils.DriverHolder;
+import com.utils.KeywordMatcher;
+import com.utils.Locator;
+import com.utils.Metrics;
+import com.utils.SessionSupervisor;
+import com.utils.UiSnapshot;
+import com.utils.UiWait;
 import com.utils.Utils;
-import io.appium.java_client.android.AndroidDriver;
 import org.openqa.selenium.*;
-import org.openqa.selenium.NoSuchElementException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.MalformedURLException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class Snap {
     private static final Logger log = LoggerFactory.getLogger(Snap.class);
 
-    private AndroidDriver driver;
-    private Utils utils;
-
-    // XPaths (kept as you provided)
-    private static final By chatButton = By.xpath("//android.view.ViewGroup[@content-desc=\"Chat\"]");
-    private static final By newChatButton = By.xpath("//android.widget.RelativeLayout");
-    private static final By sectionsBy = By.xpath("//android.view.View[matches(@resource-id, '^([A-Z]|#)$')]");
-    private static final By allViewsBy = By.xpath("//android.view.View"); // fallback
-    private static final By friendsBy = By.xpath("//android.view.View[starts-with(@resource-id,'select_recipients_friends')]");
-    private static final By friendNameBy = By.xpath(".//android.widget.TextView[1]");
-    private static final By chatButtonI = By.xpath("//android.widget.Button[@content-desc=\"Chat\"]");
-    private static final By messageField = By.xpath("//android.widget.EditText[@resource-id=\"com.snapchat.android:id/chat_input_text_field\"]");
-
-    private static final By addFriendButton = By.xpath("//android.widget.Button[@resource-id=\"chat-header-add-friend-button\"]");
-    private static final By profile = By.xpath("//android.widget.TextView[@resource-id=\"com.snapchat.android:id/0_resource_name_obfuscated\"]");
-    private static final By otherOptions = By.xpath("(//android.view.View[@resource-id=\"upp-menu-button\"]) | ((//android.view.View[@resource-id=\"unified_profile_icon_button_action_menu\"])[1])");
-    private static final By removeSwitch = By.xpath("//android.widget.TextView[@content-desc=\"Add\"]");
-    private static final By yes = By.xpath("//android.view.View[@resource-id=\"com.snapchat.android:id/composer_alert_confirm\"]");
-    private static final By mangeFriendShip = By.xpath("//javaClass[@text=\"Manage Friendship\"]");
-    private static final By removeFirend = By.xpath("//javaClass[@text=\"Remove Friend\"]");
-    private static final By remove = By.xpath("//android.widget.LinearLayout[@resource-id=\"com.snapchat.android:id/dialog_content\"]/android.view.View");
-    private static final By videoCall = By.xpath("//android.view.View[@content-desc=\"Start a video call\"]");
-
-    // Pattern to extract single-char id (fallback)
+    private final DriverHolder holder; // the one live session, shared with utils
+    private final Utils utils;
+    private final ScreenNavigator navigator;
+
+    // XPaths (kept as you provided), compiled to native UiAutomator2 selectors where equivalent
+    static final Locator chatButton = Locator.compile("//android.view.ViewGroup[@content-desc=\"Chat\"]");
+    static final Locator newChatButton = Locator.compile("//android.widget.RelativeLayout");
+    static final Locator friendsBy = Locator.compile("//android.view.View[starts-with(@resource-id,'select_recipients_friends')]");
+    private static final Locator friendNameBy = Locator.compile(".//android.widget.TextView[1]");
+    private static final Locator chatButtonI = Locator.compile("//android.widget.Button[@content-desc=\"Chat\"]");
+    static final Locator messageField = Locator.compile("//android.widget.EditText[@resource-id=\"com.snapchat.android:id/chat_input_text_field\"]");
+
+    private static final Locator addFriendButton = Locator.compile("//android.widget.Button[@resource-id=\"chat-header-add-friend-button\"]");
+    private static final Locator profile = Locator.compile("//android.widget.TextView[@resource-id=\"com.snapchat.android:id/0_resource_name_obfuscated\"]");
+    static final Locator otherOptions = Locator.compile("(//android.view.View[@resource-id=\"upp-menu-button\"]) | ((//android.view.View[@resource-id=\"unified_profile_icon_button_action_menu\"])[1])");
+    private static final Locator removeSwitch = Locator.compile("//android.widget.TextView[@content-desc=\"Add\"]");
+    static final Locator yes = Locator.compile("//android.view.View[@resource-id=\"com.snapchat.android:id/composer_alert_confirm\"]");
+    static final Locator mangeFriendShip = Locator.compile("//javaClass[@text=\"Manage Friendship\"]");
+    static final Locator removeFirend = Locator.compile("//javaClass[@text=\"Remove Friend\"]");
+    static final Locator remove = Locator.compile("//android.widget.LinearLayout[@resource-id=\"com.snapchat.android:id/dialog_content\"]/android.view.View");
+    private static final Locator videoCall = Locator.compile("//android.view.View[@content-desc=\"Start a video call\"]");
+    private static final Locator menuEntries = Locator.compile(mangeFriendShip.xpath() + " | " + removeSwitch.xpath());
+
+    // unfriend: open the profile menu, then one of two removal paths (chosen by one probe of the menu)
+    private static final StepPlan OPEN_PROFILE_MENU = new StepPlan("openProfileMenu",
+            StepPlan.tap("openProfile", profile, otherOptions, Duration.ofSeconds(7)),
+            // the first tap on the menu button is sometimes swallowed while the profile animates in
+            StepPlan.tap("openMenu", otherOptions, menuEntries, Duration.ofSeconds(3)).withAttempts(2));
+    private static final StepPlan REMOVE_VIA_MANAGE = new StepPlan("removeViaManageFriendship",
+            StepPlan.tap("manageFriendship", mangeFriendShip, removeFirend, Duration.ofSeconds(5)),
+            StepPlan.tap("removeFriend", removeFirend, remove, Duration.ofSeconds(5)),
+            StepPlan.tapAway("confirmRemove", remove, Duration.ofSeconds(15)));
+    private static final StepPlan REMOVE_VIA_SWITCH = new StepPlan("removeViaSwitch",
+            StepPlan.tap("removeSwitch", removeSwitch, yes, Duration.ofSeconds(5)),
+            StepPlan.tapAway("confirmYes", yes, Duration.ofSeconds(15)));
+
+    // section id: a single letter or #
     private static final Pattern SECTION_ID_PATTERN = Pattern.compile("^([A-Z]|#)$");
 
-    // --- Config-driven fields (loaded in ctor) ---
-    private final List<String> messagesToSend;
-    private final Set<String> sendOnlyToSet;
-    private final boolean unfriendEnabled;
-    private final List<String> unfriendSkipContains;
+    // section headers (A..Z, #) are android.view.View nodes; resource-id may carry a package prefix
+    private static final String VIEW_CLASS = "android.view.View";
+    private static final int SNAPSHOT_MAX_SCROLLS = 4; // one planned scroll plus corrections
+
+    // --- Config-driven fields (loaded in ctor; messages and rules re-read at the next friend after a reload) ---
+    private List<String> messagesToSend;
+    private boolean typeFastPath;
+    private FriendRules rules;
+    private long configVersion;
+    private final boolean snapshotMode;
+    private final boolean rosterScanOnly;
+    private final Path rosterDir;
+    private final RunJournal journal; // null when journal.enable=false
+    private final RelationshipCache relationships; // null when relationship.cache.enable=false
+    private final Path metricsDir; // null when metrics.enable=false
 
     public Snap() throws MalformedURLException {
-        this.driver = Utils.createDriver();
-        this.utils = new Utils(this.driver);
+        Metrics.startRun();
+        this.holder = new DriverHolder(Utils.startDriver());
+        this.utils = new Utils(holder);
+        this.navigator = new ScreenNavigator(utils);
         log.info("✅ Snapchat launched successfully!");
 
         // Load config values via ConfigManager (expects src/main/resources/config.properties on classpath)
+        loadRules();
+        this.snapshotMode = ConfigManager.getBoolean("snapshot.enable");
+        this.rosterScanOnly = ConfigManager.getBoolean("roster.scan.only");
+        String rosterDirName = ConfigManager.get("roster.dir");
+        this.rosterDir = Path.of(rosterDirName.isEmpty() ? "roster" : rosterDirName);
+        String journalDir = ConfigManager.get("journal.dir");
+        this.journal = ConfigManager.getBoolean("journal.enable")
+                ? RunJournal.open(Path.of(journalDir.isEmpty() ? "journal" : journalDir))
+                : null;
+        String cacheDir = ConfigManager.get("relationship.cache.dir");
+        this.relationships = ConfigManager.getBoolean("relationship.cache.enable")
+                ? RelationshipCache.open(Path.of(cacheDir.isEmpty() ? "cache" : cacheDir),
+                        Duration.ofHours(ConfigManager.getLong("relationship.cache.ttl.hours", 72)),
+                        ConfigManager.getBoolean("relationship.cache.clear"))
+                : null;
+        String metricsDirName = ConfigManager.get("metrics.dir");
+        this.metricsDir = ConfigManager.getBoolean("metrics.enable")
+                ? Path.of(metricsDirName.isEmpty() ? "metrics" : metricsDirName)
+                : null;
+        if (ConfigManager.getBoolean("config.reload.enable")) ConfigManager.watchForChanges();
+        log.debug("Config loaded: snapshotMode={}, rosterScanOnly={}, journal={}, metricsDir={}", snapshotMode, rosterScanOnly, journal != null, metricsDir);
+    }
+
+    /** (Re)read messages and friend rules from the current config snapshot. */
+    private void loadRules() {
+        this.configVersion = ConfigManager.version();
         String rawMessages = ConfigManager.get("message.to.send").trim();
         if (rawMessages.isEmpty()) {
             this.messagesToSend = Collections.emptyList();
@@ -64,15 +124,16 @@ public class Snap {
                     .filter(s -> !s.isEmpty())
                     .collect(Collectors.toList());
         }
+        this.typeFastPath = !ConfigManager.get("message.input.mode").equalsIgnoreCase("value");
 
-        List<String> skipIfContains = ConfigManager.getList("skip.if.contains");
-        this.sendOnlyToSet = ConfigManager.getSetLowerCase("send.only.to");
-        this.unfriendEnabled = ConfigManager.getBoolean("unfriend.enable");
-        this.unfriendSkipContains = ConfigManager.getList("unfriend.skip.if.contains");
-        List<String> dontUnfriendIfLastMessageContains = ConfigManager.getList("dont.unfriend.if.lastMessageContains");
+        KeywordMatcher skipIfContains = ConfigManager.getMatcher("skip.if.contains");
+        this.rules = new FriendRules(ConfigManager.getMatcher("send.only.to"),
+                ConfigManager.getBoolean("unfriend.enable"),
+                ConfigManager.getMatcher("unfriend.skip.if.contains"));
+        KeywordMatcher dontUnfriendIfLastMessageContains = ConfigManager.getMatcher("dont.unfriend.if.lastMessageContains");
 
-        log.debug("Config loaded: messagesToSend={}, skipIfContains={}, sendOnlyTo={}, unfriendEnabled={}, unfriendSkipContains={}, dontUnfriendIfLastMessageContains={}",
-                messagesToSend.size(), skipIfContains, sendOnlyToSet, unfriendEnabled, unfriendSkipContains, dontUnfriendIfLastMessageContains);
+        log.debug("Config v{} loaded: messagesToSend={}, skipIfContains={}, sendOnlyTo={}, unfriendEnabled={}, unfriendSkipContains={}, dontUnfriendIfLastMessageContains={}",
+                configVersion, messagesToSend.size(), skipIfContains, rules.sendOnlyTo(), rules.unfriendEnabled(), rules.unfriendSkipContains(), dontUnfriendIfLastMessageContains);
     }
 
     public void clickOnChat() {
@@ -85,385 +146,567 @@ public class Snap {
     }
 
     /**
-     * Primary: get sections via provided XPath. Fallback: get all android.view.View and filter
-     * resource-id in Java (handles cases where matches() isn't supported by the XPath engine).
+     * Opens New Chat from whatever screen the app shows: the camera after a fresh launch, or anywhere a
+     * reattached session was left.
      */
-    private List<WebElement> getSectionsSafe() {
+    public void openNewChat() {
+        if (!navigator.openNewChat(null)) utils.clickElement(newChatButton);
+    }
 
-        List<WebElement> sections = new ArrayList<>();
-        try {
-            sections = utils.findElements(sectionsBy);
-            if (sections == null) sections = new ArrayList<>();
-            if (!sections.isEmpty()) {
-                log.debug("Found {} sections using sectionsBy xpath", sections.size());
-                return sections;
-            }
-        } catch (Exception e) {
-            log.debug("sectionsBy xpath failed/returned nothing: {}", e.getMessage());
-        }
+    /**
+     * True when the resource-id (or its last token after a package prefix) is a section id A..Z / #.
+     */
+    static boolean isSectionId(String rid) {
+        if (rid == null || rid.isBlank()) return false;
+        // If resource-id contains a colon or slash or package prefix, pick last token
+        String last = rid.contains("/") ? rid.substring(rid.lastIndexOf("/") + 1) : rid;
+        last = last.contains(":") ? last.substring(last.lastIndexOf(":") + 1) : last;
+        return SECTION_ID_PATTERN.matcher(last).matches();
+    }
 
-        // Fallback approach
-        log.debug("Falling back to scanning all views and filtering resource-id A..Z / #");
-        try {
-            List<WebElement> all = utils.findElements(allViewsBy);
-            for (WebElement v : all) {
-                try {
-                    String rid = v.getAttribute("resource-id");
-                    if (rid == null || rid.isBlank()) continue;
-                    // If resource-id contains a colon or slash or package prefix, pick last token
-                    String last = rid.contains("/") ? rid.substring(rid.lastIndexOf("/") + 1) : rid;
-                    last = last.contains(":") ? last.substring(last.lastIndexOf(":") + 1) : last;
-                    if (SECTION_ID_PATTERN.matcher(last).matches()) {
-                        assert sections != null;
-                        sections.add(v);
-                    }
-                } catch (StaleElementReferenceException see) {
-                    log.debug("stale element while filtering sections; skipping one");
-                }
-            }
-        } catch (WebDriverException e) {
-            log.warn("Error while gathering fallback sections: {}. Attempting driver repair.", e.getMessage());
-            this.driver = Utils.repairDriverSafely(e);
-            this.utils = new Utils(this.driver);
-            // one more try after repair
-            try {
-                List<WebElement> all = utils.findElements(allViewsBy);
-                for (WebElement v : all) {
-                    try {
-                        String rid = v.getAttribute("resource-id");
-                        if (rid == null || rid.isBlank()) continue;
-                        String last = rid.contains("/") ? rid.substring(rid.lastIndexOf("/") + 1) : rid;
-                        last = last.contains(":") ? last.substring(last.lastIndexOf(":") + 1) : last;
-                        if (SECTION_ID_PATTERN.matcher(last).matches()) {
-                            assert sections != null;
-                            sections.add(v);
-                        }
-                    } catch (StaleElementReferenceException ignored) { }
-                }
-            } catch (Exception ex) {
-                log.error("Fallback attempt after repair also failed: {}", ex.getMessage(), ex);
-            }
-        }
-        assert sections != null;
-        log.debug("Sections found via fallback: {}", sections.size());
-        return sections;
+    private static int[] findSections(UiSnapshot ui) {
+        return ui.findAll(i -> VIEW_CLASS.equals(ui.className(i)) && isSectionId(ui.resourceId(i)));
+    }
+
+    private static int[] findFriends(UiSnapshot ui, int section) {
+        return friendsBy.findIn(ui, section);
+    }
+
+    private static int findFriendName(UiSnapshot ui, int friendRow) {
+        return friendNameBy.findFirstIn(ui, friendRow);
     }
 
     /**
-     * Iterate sections A..Z/# and inside each, iterate friends list snapshot.
-     * Uses fresh lookups each iteration to reduce staleness and uses repair on WebDriverException.
+     * Index the whole roster in one pass ({@link #scanRoster}), then walk it section by section with an
+     * identity-keyed {@link FriendCursor}. Each friend is re-located by its identity right before the tap,
+     * so per-friend cost stays constant and list shifts after an unfriend do not skip or repeat rows.
+     * With {@code roster.scan.only=true} the roster is exported and nothing else is done.
      */
     public void sendMessageToEveryOne() {
-        utils.waitForSeconds(1);
+        utils.waitForUiStable("newChatScreen");
         utils.hideKeyBoard();
 
-        List<WebElement> sections = getSectionsSafe();
-        log.info("Total Sections: {}", sections.size());
-
-        for (int s = 0; s < sections.size(); s++) {
-            log.info("Processing section {}/{}", s + 1, sections.size());
+        if (rosterScanOnly) {
+            RosterIndex roster = scanRoster();
+            roster.write(rosterDir);
+            log.info("Scan only: {} of {} friends pass the current friend rules", roster.count(key -> rules.shouldProcess(key.name())), roster.size());
+            return;
+        }
+        if (snapshotMode) {
+            sendMessageToEveryOneFromSnapshot();
+            return;
+        }
 
-            // Re-acquire the section element fresh to avoid stale refs
-            try {
-                List<WebElement> freshSections = getSectionsSafe();
-                if (s >= freshSections.size()) {
-                    log.warn("Section index {} no longer present; skipping", s);
+        RosterIndex roster = scanRoster();
+        roster.write(rosterDir);
+        FriendCursor cursor = newCursor();
+        List<String> sectionIds = roster.sections();
+
+        for (int s = 0; s < sectionIds.size(); s++) {
+            String sectionId = sectionIds.get(s);
+            List<FriendCursor.FriendKey> keys = roster.friends(sectionId);
+            log.info("Processing section {}/{} ({}, {} friends)", s + 1, sectionIds.size(), sectionId, keys.size());
+            // the journal checkpoint only places the first section; later ones start at their top
+            if (s > 0) cursor.resetPosition();
+
+            int idx;
+            while ((idx = cursor.next(keys)) >= 0) {
+                FriendCursor.FriendKey key = keys.get(idx);
+                cursor.markVisited(key);
+                if (!shouldProcessFriend(key.name()) || decidedFromCache(key)) {
                     continue;
                 }
-                WebElement section = freshSections.get(s);
 
-                List<WebElement> friends ;
+                long friendGen = holder.generation();
                 try {
-                    friends = section.findElements(friendsBy);
-                } catch (StaleElementReferenceException e) {
-                    log.debug("Section stale when fetching friends; re-finding section & friends");
-                    freshSections = getSectionsSafe();
-                    if (s >= freshSections.size()) {
-                        log.warn("Section disappeared after stale; skipping");
-                        continue;
-                    }
-                    section = freshSections.get(s);
-                    friends = section.findElements(friendsBy);
-                } catch (WebDriverException e) {
-                    log.warn("Error fetching friends: {}. Repairing driver and retrying.", e.getMessage());
-                    this.driver = Utils.repairDriverSafely(e);
-                    this.utils = new Utils(this.driver);
-                    freshSections = getSectionsSafe();
-                    if (s >= freshSections.size()) {
-                        log.warn("Section not found after repair; skipping");
-                        continue;
-                    }
-                    section = freshSections.get(s);
-                    friends = section.findElements(friendsBy);
-                }
-
-                log.info("Section {} has {} friends (snapshot)", s + 1, friends.size());
-
-                for (int fIndex = 0; fIndex < friends.size(); fIndex++) {
-                    utils.waitForSeconds(1);
+                    long friendStart = Metrics.start();
+                    utils.waitForUiStable("returnToList");
                     utils.hideKeyBoard();
-
-                    // Re-fetch section & friends each loop to avoid using stale objects
-                    try {
-                        List<WebElement> freshSections2 = getSectionsSafe();
-                        if (s >= freshSections2.size()) {
-                            log.warn("Section disappeared mid-iteration; breaking friend loop");
-                            break;
-                        }
-                        section = freshSections2.get(s);
-                        friends = section.findElements(friendsBy);
-                        if (fIndex >= friends.size()) {
-                            log.warn("Friend index {} out of bounds after re-fetch; breaking.", fIndex);
-                            break;
-                        }
-                    } catch (WebDriverException e) {
-                        log.warn("Error re-fetching section/friends: {}. Repairing driver.", e.getMessage());
-                        this.driver = Utils.repairDriverSafely(e);
-                        this.utils = new Utils(this.driver);
-                        continue; // try next iteration
-                    }
-
-                    WebElement friend = friends.get(fIndex);
-                    String friendName;
-                    try {
-                        friendName = friend.findElement(friendNameBy).getText();
-                        if(!shouldProcessFriend(friendName)){
-                            continue;
-                        }
-                    } catch (StaleElementReferenceException | NoSuchElementException ex) {
-                        log.debug("Friend element stale when reading name; re-finding friend element");
-                        friends = section.findElements(friendsBy);
-                        if (fIndex >= friends.size()) {
-                            log.warn("Friend not present after re-find; skipping index {}", fIndex);
-                            continue;
-                        }
-                        friend = friends.get(fIndex);
-                        try {
-                            friendName = friend.findElement(friendNameBy).getText();
-                        } catch (Exception exc) {
-                            log.warn("Couldn't read friend name, skipping friend at index {}: {}", fIndex, exc.getMessage());
-                            continue;
-                        }
+                    log.info("Processing friend {} (section {}, visited {})", key.name(), sectionId, cursor.visitedCount());
+
+                    // the list reopens at the top after every chat; let UiScrollable find rows further down
+                    Locator rowBy = friendRowBy(key);
+                    List<WebElement> found = withName(utils.findElements(rowBy, Duration.ZERO), key);
+                    if (found.isEmpty() && utils.scrollTextIntoView(key.name())) found = withName(utils.findElements(rowBy), key);
+                    if (found.isEmpty()) {
+                        log.warn("Friend {} no longer present in section {}; skipping", key.name(), sectionId);
+                        continue;
                     }
+                    WebElement friend = found.get(0);
 
-                    log.info("Processing friend {} (section {}, index {})", friendName, s + 1, fIndex + 1);
-
-
-
-                    // Scroll into view and click
+                    // Scroll into view and click the name element the scroll resolved
+                    WebElement nameEl = null;
                     try {
-                        utils.scrollElementIntoViewSafe(friend, friendNameBy);
+                        nameEl = utils.scrollElementIntoViewSafe(friend, friendNameBy);
                     } catch (Exception ex) {
                         log.debug("scrollElementIntoViewSafe threw: {}", ex.getMessage());
                     }
 
+                    Metrics.record("phase.discover", friendStart);
+                    long openStart = Metrics.start();
+                    long gen = holder.generation();
                     try {
-                        WebElement nameEl = friend.findElement(friendNameBy);
+                        if (nameEl == null) nameEl = friend.findElement(friendNameBy);
+                        if (journal != null) journal.started(key);
                         nameEl.click();
+                        utils.screenChanged();
                     } catch (WebDriverException clickEx) {
                         log.warn("Failed clicking friend name: {}. Attempting repair and continuing.", clickEx.getMessage());
-                        this.driver = Utils.repairDriverSafely(clickEx);
-                        this.utils = new Utils(this.driver);
+                        // the chat never opened, so nothing was sent: close the STARTED record so a resumed run retries
+                        if (journal != null) journal.finished(key, Decision.ERROR, false);
+                        holder.recover(gen, clickEx);
                         safeEnsureNewChatScreen();
                         continue;
                     }
 
                     // After opening chat, decide to send or unfriend
-                    try {
-                        if(sendMessageOrUnfriend(friendName)) {
-                            fIndex--;
-                        }
-                    } catch (WebDriverException e) {
-                        log.error("Error during send/unfriend for {}: {}. Repairing driver.", friendName, e.getMessage());
-                        this.driver = Utils.repairDriverSafely(e);
-                        this.utils = new Utils(this.driver);
+                    processAndJournal(key, openStart);
+                    Metrics.record("friend", friendStart);
+                } catch (Exception outerEx) {
+                    log.error("Unexpected error processing {} in section {}: {}", key.name(), sectionId, outerEx.getMessage(), outerEx);
+                    // no-op when a nested call already replaced the session for this friend
+                    holder.recover(friendGen, outerEx);
+                }
+            }
+        }
+
+        if (journal != null) journal.complete();
+        log.info("Finished sendMessageToEveryOne()");
+    }
+
+    /**
+     * Walks the New Chat list once from the top, one page-source snapshot per scroll window, and indexes
+     * every friend row by section and position. Stops when a scroll no longer changes the rows (end of list).
+     */
+    private RosterIndex scanRoster() {
+        long t0 = Metrics.start();
+        RosterIndex roster = new RosterIndex();
+        List<FriendCursor.FriendKey> before = List.of();
+        UiSnapshot ui = utils.snapshot();
+        while (true) {
+            List<FriendCursor.FriendKey> keys = new ArrayList<>();
+            for (int section : findSections(ui)) {
+                String sectionId = ui.resourceId(section);
+                for (int row : findFriends(ui, section)) {
+                    int nameNode = findFriendName(ui, row);
+                    FriendCursor.FriendKey key = new FriendCursor.FriendKey(nameNode < 0 ? "" : ui.text(nameNode), ui.resourceId(row));
+                    keys.add(key);
+                    // a row clipped at the edge may lack its name; it is whole in the next window
+                    if (nameNode >= 0) roster.add(sectionId, key);
+                }
+            }
+            if (keys.equals(before)) break;
+            before = keys;
+            ui = utils.scrollPage();
+        }
+        Metrics.record("phase.scan", t0);
+        roster.logSummary();
+        return roster;
+    }
+
+    /** Locator for a friend's row by its resource-id; a native id lookup on the device. */
+    private static Locator friendRowBy(FriendCursor.FriendKey key) {
+        return Locator.attributeEquals("android.view.View", "resource-id", key.rowId());
+    }
+
+    /** The rows showing this friend's name; the name is only read when several rows share the row id. */
+    private static List<WebElement> withName(List<WebElement> rows, FriendCursor.FriendKey key) {
+        if (rows.size() <= 1) return rows;
+        List<WebElement> named = new ArrayList<>();
+        for (WebElement row : rows) {
+            List<WebElement> names = row.findElements(friendNameBy);
+            if (!names.isEmpty() && key.name().equals(names.get(0).getText())) named.add(row);
+        }
+        return named;
+    }
+
+    /** Friend keys of every row in the snapshot, in screen order, with the matching row nodes. */
+    private static List<FriendCursor.FriendKey> friendKeys(UiSnapshot ui, List<Integer> rowNodes) {
+        List<FriendCursor.FriendKey> keys = new ArrayList<>();
+        for (int section : findSections(ui)) {
+            for (int row : findFriends(ui, section)) {
+                int nameNode = findFriendName(ui, row);
+                keys.add(new FriendCursor.FriendKey(nameNode < 0 ? "" : ui.text(nameNode), ui.resourceId(row)));
+                rowNodes.add(row);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Snapshot mode: each iteration fetches the page source once, resolves friend rows locally and lets
+     * the {@link FriendCursor} pick the next unvisited friend. Only the scroll swipes and the final tap on
+     * the friend name hit the device.
+     */
+    private void sendMessageToEveryOneFromSnapshot() {
+        FriendCursor cursor = newCursor();
+        FriendCursor.FriendKey anchor = null;
+        UiSnapshot ui = utils.snapshot();
+        log.info("Total Sections: {} (snapshot mode)", findSections(ui).length);
+
+        while (true) {
+            long friendGen = holder.generation();
+            try {
+                List<Integer> rowNodes = new ArrayList<>();
+                List<FriendCursor.FriendKey> keys = friendKeys(ui, rowNodes);
+                int idx = cursor.next(keys);
+                if (idx < 0) {
+                    // only rows on screen are in the page source: page on to rows not seen yet
+                    ui = revealUnvisited(cursor, keys, anchor);
+                    if (ui == null) break;
+                    continue;
+                }
+
+                FriendCursor.FriendKey key = keys.get(idx);
+                cursor.markVisited(key);
+                if (!shouldProcessFriend(key.name()) || decidedFromCache(key)) {
+                    continue;
+                }
+                // the nearest visited row above: unlike the friend about to be opened, it cannot be removed
+                for (int above = idx - 1; above >= 0; above--) {
+                    if (!keys.get(above).name().isEmpty()) {
+                        anchor = keys.get(above);
+                        break;
                     }
-                } // end friends loop
+                }
+
+                long friendStart = Metrics.start();
+                utils.waitForUiStable("returnToList");
+                utils.hideKeyBoard();
+                log.info("Processing friend {} (row {}, visited {})", key.name(), key.rowId(), cursor.visitedCount());
+
+                // Scroll into view, re-resolving the name node by identity after every swipe
+                int nameNode = findFriendName(ui, rowNodes.get(idx));
+                for (int scroll = 0; scroll < SNAPSHOT_MAX_SCROLLS && nameNode >= 0
+                        && !utils.scrollNodeIntoViewSafe(ui, nameNode); scroll++) {
+                    ui = utils.snapshot();
+                    rowNodes.clear();
+                    int pos = friendKeys(ui, rowNodes).indexOf(key);
+                    nameNode = pos < 0 ? -1 : findFriendName(ui, rowNodes.get(pos));
+                }
+                if (nameNode < 0 && utils.scrollTextIntoView(key.name())) {
+                    ui = utils.snapshot();
+                    rowNodes.clear();
+                    int pos = friendKeys(ui, rowNodes).indexOf(key);
+                    nameNode = pos < 0 ? -1 : findFriendName(ui, rowNodes.get(pos));
+                }
+                if (nameNode < 0) {
+                    log.warn("Friend {} no longer on screen after scrolling; skipping", key.name());
+                    ui = utils.snapshot();
+                    continue;
+                }
+
+                Metrics.record("phase.discover", friendStart);
+                long openStart = Metrics.start();
+                long gen = holder.generation();
+                try {
+                    if (journal != null) journal.started(key);
+                    utils.tap(ui.centerX(nameNode), ui.centerY(nameNode));
+                } catch (WebDriverException clickEx) {
+                    log.warn("Failed tapping friend name: {}. Attempting repair and continuing.", clickEx.getMessage());
+                    // nothing was sent; a resumed run tries this friend again
+                    if (journal != null) journal.finished(key, Decision.ERROR, false);
+                    holder.recover(gen, clickEx);
+                    safeEnsureNewChatScreen();
+                    ui = utils.snapshot();
+                    continue;
+                }
+
+                processAndJournal(key, openStart);
+                Metrics.record("friend", friendStart);
+                ui = utils.snapshot();
             } catch (Exception outerEx) {
-                log.error("Unexpected error processing section {}: {}", s + 1, outerEx.getMessage(), outerEx);
-                this.driver = Utils.repairDriverSafely(outerEx instanceof WebDriverException webDriverException ? webDriverException : new WebDriverException(outerEx));
-                this.utils = new Utils(this.driver);
+                log.error("Unexpected error in snapshot traversal: {}", outerEx.getMessage(), outerEx);
+                holder.recover(friendGen, outerEx);
+                ui = utils.snapshot();
             }
-        } // end sections loop
+        }
 
-        log.info("Finished sendMessageToEveryOne()");
+        if (journal != null) journal.complete();
+        log.info("Finished sendMessageToEveryOne() — {} friends visited", cursor.visitedCount());
     }
 
-    private void safeEnsureNewChatScreen() {
+    /**
+     * Pages the New Chat list forward until a row the cursor has not visited is on screen and returns that
+     * snapshot, or null once paging no longer changes the rows (end of list). The list reopens at the top
+     * after every chat, so the walk back starts with one UiScrollable call to {@code anchor}, a visited row
+     * just above the last friend opened: paging resumes from there instead of from the top.
+     */
+    private UiSnapshot revealUnvisited(FriendCursor cursor, List<FriendCursor.FriendKey> onScreen, FriendCursor.FriendKey anchor) {
+        Predicate<UiSnapshot> unvisited = ui -> friendKeys(ui, new ArrayList<>()).stream().anyMatch(key -> !cursor.isVisited(key));
+        if (anchor != null && !onScreen.contains(anchor)) {
+            if (!utils.scrollTextIntoView(anchor.name())) log.warn("Could not scroll back to {}; paging on from here", anchor.name());
+            UiSnapshot ui = utils.snapshot();
+            if (unvisited.test(ui)) return ui;
+            onScreen = friendKeys(ui, new ArrayList<>());
+        }
+        return pageUntil(onScreen, unvisited);
+    }
+
+    /** Pages forward until {@code found} holds for the screen; null when the rows stop changing. */
+    private UiSnapshot pageUntil(List<FriendCursor.FriendKey> onScreen, Predicate<UiSnapshot> found) {
+        List<FriendCursor.FriendKey> before = onScreen;
+        while (true) {
+            UiSnapshot ui = utils.scrollPage();
+            if (found.test(ui)) return ui;
+            List<FriendCursor.FriendKey> keys = friendKeys(ui, new ArrayList<>());
+            if (keys.equals(before)) return null;
+            before = keys;
+        }
+    }
+
+    /** Cursor for a new traversal, resumed from the run journal when an earlier run was interrupted. */
+    private FriendCursor newCursor() {
+        FriendCursor cursor = new FriendCursor();
+        if (journal != null && !journal.processed().isEmpty()) {
+            cursor.resumeFrom(journal.processed(), journal.lastProcessed());
+        }
+        return cursor;
+    }
+
+    /**
+     * Decide and act on the opened chat, journaling the decision and outcome. {@code openStart} is when the tap
+     * that opened the chat began (the open phase ends once the chat is stable).
+     */
+    private void processAndJournal(FriendCursor.FriendKey key, long openStart) {
+        Decision decision = Decision.ERROR;
+        boolean ok = false;
+        long gen = holder.generation();
         try {
-            int tries = 0;
-            while (tries++ < 4 && !utils.isDisplayed(newChatButton)) {
-                utils.navigateBack();
-                utils.waitForSeconds(1);
-            }
-            if (utils.isDisplayed(newChatButton)) {
-                utils.clickElement(newChatButton);
-            } else {
-                log.warn("Could not ensure new chat screen (newChatButton not visible).");
+            Outcome outcome = processOpenedChat(key.name(), key, openStart);
+            decision = outcome.decision();
+            ok = outcome.ok();
+        } catch (WebDriverException e) {
+            log.error("Error during send/unfriend for {}: {}. Repairing driver.", key.name(), e.getMessage());
+            holder.recover(gen, e);
+        } finally {
+            // removed, or the observed status is in doubt: probe again next time
+            if (relationships != null && (decision == Decision.UNFRIEND || decision == Decision.SEND_FALLBACK || decision == Decision.ERROR)) {
+                relationships.invalidate(key);
             }
+            recordOutcome(key, decision, ok);
+        }
+    }
+
+    /**
+     * Settles a friend without opening the chat when the cached relationship says there is nothing to do
+     * (e.g. a protected friend who is not mutual). True when the friend was handled that way.
+     */
+    private boolean decidedFromCache(FriendCursor.FriendKey key) {
+        if (relationships == null) return false;
+        RelationshipCache.Relationship known = relationships.get(key);
+        if (known == null) return false;
+        Decision decision = rules.skipDecision(key.name(), known == RelationshipCache.Relationship.MUTUAL);
+        if (decision == null) return false;
+        log.info("{}: {} (cached relationship {}); chat not opened", key.name(), decision, known);
+        Metrics.increment("relationship.cache.skip");
+        recordOutcome(key, decision, true);
+        return true;
+    }
+
+    private void recordOutcome(FriendCursor.FriendKey key, Decision decision, boolean ok) {
+        if (journal != null) journal.finished(key, decision, ok);
+        Metrics.increment("friends");
+        Metrics.increment("decision." + decision);
+    }
+
+    private void safeEnsureNewChatScreen() {
+        long gen = holder.generation();
+        try {
+            if (!navigator.openNewChat(null)) log.warn("Could not ensure new chat screen.");
         } catch (WebDriverException e) {
             log.warn("safeEnsureNewChatScreen encountered: {}. Repairing driver.", e.getMessage());
-            this.driver = Utils.repairDriverSafely(e);
-            this.utils = new Utils(this.driver);
+            holder.recover(gen, e);
         }
     }
 
     public boolean sendMessageOrUnfriend(String name) {
+        return processOpenedChat(name, null, Metrics.start()).decision() == Decision.UNFRIEND;
+    }
+
+    /** Decision for one friend and whether acting on it succeeded (a send counts only when every message arrived). */
+    private record Outcome(Decision decision, boolean ok) {
+        static Outcome of(Decision decision) {
+            return new Outcome(decision, decision != Decision.ERROR);
+        }
+    }
+
+    /**
+     * Body of {@link #sendMessageOrUnfriend}: probes the relationship, acts, and reports the decision and
+     * outcome (journaled per friend).
+     */
+    private Outcome processOpenedChat(String name, FriendCursor.FriendKey key, long openStart) {
         utils.hideKeyBoard();
         utils.clickElement(chatButtonI);
         utils.hideKeyBoard();
-        utils.waitForSeconds(1);
+        utils.waitForUiStable("openChat");
+        Metrics.record("phase.open", openStart);
         try {
-            boolean addFriendVisible = utils.isDisplayed(addFriendButton);
-            boolean videoCallVisible = utils.isDisplayed(videoCall);
+            long probeStart = Metrics.start();
+            RelationshipCache.Relationship cached = key == null || relationships == null ? null : relationships.get(key);
+            RelationshipCache.Relationship relationship = cached;
+            if (cached == RelationshipCache.Relationship.MUTUAL) {
+                Metrics.increment("relationship.cache.hit");
+            } else {
+                // a cached NOT_MUTUAL would lead to an unfriend, which cannot be undone: look at the header again
+                if (cached != null) Metrics.increment("relationship.cache.recheck");
+                relationship = probeRelationship(key);
+            }
+            Metrics.record("phase.probe", probeStart);
 
-            if (addFriendVisible || !videoCallVisible) {
+            if (relationship == null) {
+                // unfriending cannot be undone: without the Add button in sight, leave this friend for a later run
+                log.warn("Chat header for {} showed neither the Add nor the call button; skipping", name);
+                safeReturnToNewChat();
+                return Outcome.of(Decision.ERROR);
+            }
+            if (relationship == RelationshipCache.Relationship.NOT_MUTUAL) {
                 log.info("Not friend: {}", name);
 
                 // CONFIG: Only unfriend if enabled AND not protected by rules
-                if (!unfriendEnabled) {
+                if (!rules.unfriendEnabled()) {
                     log.info("Unfriend disabled in config; returning to chat list.");
                     safeReturnToNewChat();
-                    return false;
+                    return Outcome.of(Decision.SKIP_UNFRIEND_DISABLED);
                 }
 
                 // check name-based protection
-                for (String token : unfriendSkipContains) {
-                    if (token != null && !token.isBlank() && name.toLowerCase(Locale.ROOT).contains(token.toLowerCase(Locale.ROOT).trim())) {
-                        log.info("Skipping unfriend for {} because name contains protected token '{}'", name, token);
-                        safeReturnToNewChat();
-                        return false;
-                    }
+                String token = rules.protectingToken(name);
+                if (token != null) {
+                    log.info("Skipping unfriend for {} because name contains protected token '{}'", name, token);
+                    safeReturnToNewChat();
+                    return Outcome.of(Decision.SKIP_UNFRIEND_PROTECTED);
                 }
 
                 // proceed to unfriend
-                return unfriend();
+                return Outcome.of(unfriend() ? Decision.UNFRIEND : Decision.ERROR);
             } else {
                 log.info("Friend - sending message to {}", name);
 
-                // normalize once
-                String lowerName = name.toLowerCase(Locale.ROOT);
-
-                // check if any token in the set appears inside the friend's name
-                boolean anyTokenMatches = sendOnlyToSet.stream()
-                        .filter(token -> token != null && !token.isBlank())
-                        .map(String::trim)
-                        .anyMatch(token -> lowerName.contains(token.toLowerCase(Locale.ROOT)));
-
-                if (!sendOnlyToSet.isEmpty() && !anyTokenMatches) {
-                    log.info("Skipping send to '{}' because none of send.only.to tokens {} are contained in the name.", name, sendOnlyToSet);
+                if (!rules.inSendGroup(name)) {
+                    log.info("Skipping send to '{}' because none of send.only.to tokens {} are contained in the name.", name, rules.sendOnlyTo());
                     safeReturnToNewChat();
-                    return false;
+                    return Outcome.of(Decision.SKIP_NOT_IN_SEND_GROUP);
                 }
 
                 // proceed to send (uses configured messages if present)
-                return sendMessage();
+                return new Outcome(Decision.SEND, sendMessage());
             }
         } catch (Exception e) {
             log.warn("Exception in sendMessageOrUnfriend: {} — attempting sendMessage fallback", e.getMessage());
             try {
-              return sendMessage();
+                return new Outcome(Decision.SEND_FALLBACK, sendMessage());
             } catch (Exception ex) {
                 log.error("Fallback sendMessage also failed: {}", ex.getMessage(), ex);
             }
         }
-        return false;
+        return Outcome.of(Decision.ERROR);
 
     }
 
+    /**
+     * Relationship shown in the open chat's header: NOT_MUTUAL only when the Add button was seen, MUTUAL when the
+     * call button was. When the first look shows neither (the header is still loading), the header is probed
+     * again within the learned bound; null when it never showed, and then nothing is cached.
+     */
+    private RelationshipCache.Relationship probeRelationship(FriendCursor.FriendKey key) {
+        AtomicReference<Set<By>> seen = new AtomicReference<>(utils.probe(addFriendButton, videoCall));
+        if (seen.get().isEmpty()) {
+            UiWait.until("probe", () -> {
+                seen.set(utils.probe(addFriendButton, videoCall));
+                return !seen.get().isEmpty();
+            });
+        }
+        Set<By> header = seen.get();
+        RelationshipCache.Relationship relationship = header.contains(addFriendButton) ? RelationshipCache.Relationship.NOT_MUTUAL
+                : header.contains(videoCall) ? RelationshipCache.Relationship.MUTUAL : null;
+        if (key != null && relationships != null) {
+            if (relationship != null) relationships.put(key, relationship);
+            else relationships.invalidate(key);
+        }
+        return relationship;
+    }
+
     private void safeReturnToNewChat() {
+        long t0 = Metrics.start();
+        long gen = holder.generation();
         try {
             utils.hideKeyBoard();
-            utils.waitForSeconds(1);
-            utils.navigateBack();
-            utils.waitForSeconds(1);
-            for (int i = 0; i < 3; i++) {
-                if (utils.isDisplayed(newChatButton)) break;
-                utils.navigateBack();
-                utils.waitForSeconds(1);
-            }
-            if (utils.isDisplayed(newChatButton)) utils.clickElement(newChatButton);
-            else log.warn("Could not return to new chat screen.");
+            if (!navigator.openNewChat(ScreenNavigator.Screen.CONVERSATION)) log.warn("Could not return to new chat screen.");
         } catch (WebDriverException e) {
             log.warn("safeReturnToNewChat failed: {}. Repairing driver.", e.getMessage());
-            this.driver = Utils.repairDriverSafely(e);
-            this.utils = new Utils(this.driver);
+            holder.recover(gen, e);
+        } finally {
+            Metrics.record("phase.return", t0);
         }
     }
 
+    /**
+     * Removes the friend whose chat is open (see the step plans above) and returns to New Chat.
+     *
+     * @return true when the friend was removed; a failed plan is logged with the step that failed
+     */
     public boolean unfriend() {
+        long gen = holder.generation();
+        long t0 = Metrics.start();
+        boolean removed = false;
         try {
-
-            utils.clickElement(profile);
-            utils.waitForSeconds(1);
-
-            utils.clickElement(otherOptions);
-            utils.waitForSeconds(1);
             log.info("Doing unfriend...");
-            if(!(utils.isDisplayed(mangeFriendShip) || utils.isDisplayed( removeSwitch))){
-                utils.clickElement(otherOptions);
-                utils.waitForSeconds(1);
-            }
-            if (utils.isDisplayed(mangeFriendShip)) {
-                utils.clickElement(mangeFriendShip);
-                utils.waitForSeconds(1);
-                utils.clickElement(removeFirend);
-                utils.waitForSeconds(1);
-                utils.clickElement(remove);
-                utils.waitUntilElementDisappears(remove,15);
-            }
-            if (utils.isDisplayed(removeSwitch)){
-                utils.clickElement(removeSwitch);
-                utils.waitForSeconds(1);
-                utils.clickElement(yes);
-                utils.waitUntilElementDisappears(yes,15);
+            StepPlan.Result result = OPEN_PROFILE_MENU.run(utils);
+            if (result.ok()) {
+                Set<By> menu = utils.probe(mangeFriendShip, removeSwitch);
+                StepPlan path = menu.contains(mangeFriendShip) ? REMOVE_VIA_MANAGE
+                        : menu.contains(removeSwitch) ? REMOVE_VIA_SWITCH : null;
+                result = path != null ? path.run(utils)
+                        : StepPlan.Result.failed("choosePath", "neither Manage Friendship nor Add is shown");
             }
-            utils.waitForSeconds(1);
-            utils.navigateBack();
-            utils.waitForSeconds(1);
+            removed = result.ok();
+            if (!removed) log.warn("Unfriend not completed: step '{}' failed ({})", result.failedStep(), result.reason());
+            Metrics.record("phase.unfriend", t0);
+            t0 = Metrics.start();
             utils.hideKeyBoard();
-            utils.waitForSeconds(1);
-            utils.navigateBack();
-            utils.waitForSeconds(1);
-            for(int i=0;i<3;i++){
-                if(utils.isDisplayed(newChatButton)){
-                    break;
-                }
-                utils.navigateBack();
-            }
-            utils.clickElement(newChatButton);
+            if (!navigator.openNewChat(null)) log.warn("Could not return to new chat screen after unfriend.");
+            Metrics.record("phase.return", t0);
         } catch (WebDriverException e) {
             log.error("unfriend encountered: {}. Repairing driver.", e.getMessage());
-            this.driver = Utils.repairDriverSafely(e);
-            this.utils = new Utils(this.driver);
+            holder.recover(gen, e);
         }
-        return true;
+        return removed;
     }
 
+    /**
+     * Sends the configured messages in the open chat and returns to New Chat.
+     *
+     * @return true when every message was confirmed in the conversation (trivially when none are configured)
+     */
     public boolean sendMessage() {
+        long gen = holder.generation();
+        long t0 = Metrics.start();
+        boolean delivered = false;
         try {
 
             // Use configured messages if present, otherwise fallback to original hardcoded messages
             if (!messagesToSend.isEmpty()) {
-                for (String msg : messagesToSend) {
-                    utils.setText(messageField, msg);
-                    utils.pressEnter();
-                    utils.waitForSeconds(1);
+                int confirmed = utils.sendMessages(messageField, messagesToSend, typeFastPath);
+                delivered = confirmed == messagesToSend.size();
+                if (!delivered) {
+                    log.warn("Only {} of {} messages confirmed in the conversation", confirmed, messagesToSend.size());
                 }
             } else {
+                delivered = true;
                 log.warn("No message to send");
             }
+            Metrics.record("phase.send", t0);
 
-            utils.navigateBack();
-            utils.navigateBack();
-            utils.clickElement(newChatButton);
+            t0 = Metrics.start();
+            if (!navigator.openNewChat(ScreenNavigator.Screen.CONVERSATION)) log.warn("Could not return to new chat screen after sending.");
+            Metrics.record("phase.return", t0);
         } catch (WebDriverException e) {
             log.error("sendMessage failed: {}. Repairing driver.", e.getMessage());
-            this.driver = Utils.repairDriverSafely(e);
-            this.utils = new Utils(this.driver);
+            holder.recover(gen, e);
         }
 
-        return false;
+        return delivered;
 
     }
 
@@ -471,55 +714,35 @@ public class Snap {
      * Close driver cleanly so Main can call snap.close() instead of reflection.
      */
     public void close() {
-        try {
-            if (driver != null) {
-                log.info("Quitting AndroidDriver session...");
-                driver.quit();
-            }
-        } catch (WebDriverException e) {
-            log.warn("Error quitting driver: {}", e.getMessage());
-        } finally {
-            driver = null;
-        }
+        ConfigManager.stopWatching();
+        if (journal != null) journal.close();
+        if (relationships != null) relationships.close();
+        SessionSupervisor.Stats repairs = SessionSupervisor.get().stats();
+        log.info("Driver repairs: {}, avg {} ms, max {} ms", repairs.repairs(),
+                String.format("%.0f", repairs.averageMillis()), repairs.maxNanos() / 1_000_000);
+        if (metricsDir != null) Metrics.writeReport(metricsDir, Metrics.count("friends"));
+        if (ConfigManager.getBoolean("session.reuse.enable")) Utils.keepSession(holder.release());
+        else holder.close();
     }
 
     /**
-     * Decide whether to process (send/unfriend) this friend.
-     * Returns false (skip processing) when:
-     *   - global unfriend is disabled AND
-     *   - the friend is NOT in the send.only.to group.
-     * sendOnlyToSet is expected to be lowercase set (ConfigManager.getSetLowerCase).
+     * Decide whether to process (send/unfriend) this friend; see {@link FriendRules#shouldProcess}.
+     * Runs once per friend, so this is where a reloaded config takes effect.
      */
     private boolean shouldProcessFriend(String name) {
+        if (ConfigManager.version() != configVersion) {
+            loadRules();
+            log.info("Config changed; using {} message(s), send.only.to={}, unfriend.enable={}, unfriend.skip.if.contains={} from now on",
+                    messagesToSend.size(), rules.sendOnlyTo(), rules.unfriendEnabled(), rules.unfriendSkipContains());
+        }
+        if (rules.shouldProcess(name)) return true;
         if (name == null || name.trim().isEmpty()) {
             log.debug("shouldProcessFriend: empty name -> skip");
-            return false;
-        }
-
-        // normalized friend name lower-case
-        String lowerName = name.toLowerCase(Locale.ROOT).trim();
-
-        // If sendOnlyToSet empty => there is no restriction (treat as "allow all")
-        boolean inSendGroup;
-        if (sendOnlyToSet == null || sendOnlyToSet.isEmpty()) {
-            inSendGroup = true;
         } else {
-            inSendGroup = sendOnlyToSet.stream()
-                    .filter(Objects::nonNull)
-                    .map(String::trim)
-                    .filter(t -> !t.isEmpty())
-                    .anyMatch(lowerName::contains); // token is already lowercase if built via getSetLowerCase
-        }
-
-        // If unfriend disabled AND not in send group -> skip processing
-        if (!unfriendEnabled && !inSendGroup) {
             log.info("Skipping processing for '{}' because unfriend is disabled and '{}' is not in send.only.to {}",
-                    name, name, sendOnlyToSet);
-            return false;
+                    name, name, rules.sendOnlyTo());
         }
-
-        // otherwise process
-        return true;
+        return false;
     }
 
 }
@@ -0,0 +1,92 @@
+package com.snap;
+
+import com.utils.Locator;
+import com.utils.Metrics;
+import com.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * A UI flow written as data: each {@link Step} is one tap plus the post-condition that proves it worked.
+ * <p>
+ * {@link #run} taps the steps in order and moves on as soon as a step's post-condition holds (a locator shown,
+ * or gone), bounded by that step's timeout, so no step pays a fixed settle. The first step whose target is
+ * missing or whose post-condition does not hold within its attempts stops the plan; the result names it.
+ */
+final class StepPlan {
+    private static final Logger log = LoggerFactory.getLogger(StepPlan.class);
+
+    /**
+     * Tap {@code target}, then wait up to {@code timeout} for {@code until} to be shown ({@code untilGone}: to go
+     * away). With several {@code attempts} the tap is repeated when the post-condition did not hold.
+     */
+    record Step(String name, Locator target, Locator until, boolean untilGone, Duration timeout, int attempts) {
+
+        Step withAttempts(int n) {
+            return new Step(name, target, until, untilGone, timeout, n);
+        }
+    }
+
+    /** Outcome of a plan; {@code failedStep} and {@code reason} are null when it completed. */
+    record Result(boolean ok, String failedStep, String reason) {
+        static final Result DONE = new Result(true, null, null);
+
+        static Result failed(String step, String reason) {
+            return new Result(false, step, reason);
+        }
+    }
+
+    private final String name;
+    private final List<Step> steps;
+
+    StepPlan(String name, Step... steps) {
+        this.name = name;
+        this.steps = List.of(steps);
+    }
+
+    /** Tap {@code target}; done once {@code until} is shown. */
+    static Step tap(String name, Locator target, Locator until, Duration timeout) {
+        return new Step(name, target, until, false, timeout, 1);
+    }
+
+    /** Tap {@code target} (a confirm button); done once it has gone away. */
+    static Step tapAway(String name, Locator target, Duration timeout) {
+        return new Step(name, target, target, true, timeout, 1);
+    }
+
+    Result run(Utils utils) {
+        long t0 = Metrics.start();
+        try {
+            for (Step step : steps) {
+                String failure = perform(utils, step);
+                if (failure != null) {
+                    Metrics.increment("plan." + name + ".failed." + step.name());
+                    log.warn("Plan '{}' failed at step '{}': {}", name, step.name(), failure);
+                    return Result.failed(step.name(), failure);
+                }
+            }
+            return Result.DONE;
+        } finally {
+            Metrics.record("plan." + name, t0);
+        }
+    }
+
+    /** Runs one step; null when its post-condition held, otherwise why not. */
+    private static String perform(Utils utils, Step step) {
+        for (int attempt = 1; attempt <= step.attempts(); attempt++) {
+            boolean tapped = utils.clickIfPresent(step.target())
+                    || (utils.waitForUi(step.name(), step.target()) && utils.clickIfPresent(step.target()));
+            if (!tapped) return step.target() + " is not on screen";
+            boolean held = step.untilGone()
+                    ? utils.waitUntilGone(step.until(), step.timeout())
+                    : !utils.findElements(step.until(), step.timeout()).isEmpty();
+            if (held) return null;
+            if (attempt < step.attempts()) log.debug("Step '{}' had no effect; tapping again", step.name());
+        }
+        return (step.untilGone() ? step.until() + " still shown" : step.until() + " not shown")
+                + " " + step.timeout().toMillis() + " ms after the tap";
+    }
+}
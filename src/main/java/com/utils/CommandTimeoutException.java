@@ -0,0 +1,25 @@
+package com.utils;
+
+import org.openqa.selenium.WebDriverException;
+
+/**
+ * A driver command did not answer within its deadline (see {@link DeadlineCommandExecutor}) and was cancelled.
+ * <p>
+ * Deliberately not a {@link org.openqa.selenium.TimeoutException}: waits treat that as "element not there",
+ * whereas this means the session is wedged and should be repaired.
+ */
+public class CommandTimeoutException extends WebDriverException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String command;
+
+    public CommandTimeoutException(String command, long deadlineMillis) {
+        super("Driver command '" + command + "' did not complete within " + deadlineMillis + " ms");
+        this.command = command;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+}
@@ -1,41 +1,80 @@
 package com.utils;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URISyntaxException;
+import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
- * Loads config.properties from classpath and provides parsing helpers.
+ * Loads config.properties and provides parsing helpers.
+ * <p>
+ * Values live in an immutable snapshot that {@link #reload()} swaps atomically, so readers never see a
+ * half-loaded file. {@link #watchForChanges()} reloads whenever the file is saved; callers that cache derived
+ * values compare {@link #version()} to notice. The file is {@code -Dconfig.file=<path>} when set, otherwise
+ * {@code src/main/resources/config.properties} under the working directory when it exists (the file you edit,
+ * not the copy the build puts in {@code target/classes}), otherwise {@code config.properties} on the classpath
+ * (only watchable when it is a plain file, not inside a jar).
  */
 public final class ConfigManager {
-    private static final Properties props = new Properties();
+    private static final Logger log = LoggerFactory.getLogger(ConfigManager.class);
 
-    static {
-        try (InputStream is = Thread.currentThread().getContextClassLoader()
-                .getResourceAsStream("config.properties")) {
-            if (is == null) throw new RuntimeException("config.properties not found on classpath");
-            // load using UTF-8
-            props.load(new java.io.InputStreamReader(is, StandardCharsets.UTF_8));
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to load config.properties", e);
-        }
-    }
+    private static final String RESOURCE = "config.properties";
+    private static final Path SOURCE_FILE = Path.of("src", "main", "resources", RESOURCE);
+    private static final long SETTLE_POLL_MS = 100;
+    private static final long SETTLE_MAX_MS = 2000;
+
+    private record Snapshot(Map<String, String> values, long version) { }
+
+    private static final AtomicReference<Snapshot> current = new AtomicReference<>(new Snapshot(load(), 1));
+    private static WatchService watcher;
 
     private ConfigManager() {}
 
+    /** Value of {@code key}; a JVM system property of the same name (-Dkey=value) overrides the file. */
     public static String get(String key) {
-        String v = props.getProperty(key);
+        String v = System.getProperty(key, current.get().values().get(key));
         return v == null ? "" : v.trim();
     }
 
+    /** Incremented by every successful {@link #reload()}. */
+    public static long version() {
+        return current.get().version();
+    }
+
     public static boolean getBoolean(String key) {
         String v = get(key);
         if (v.isEmpty()) return false;
         return v.equalsIgnoreCase("true") || v.equalsIgnoreCase("yes") || v.equals("1");
     }
 
+    /** Parse a whole number; {@code fallback} when the key is missing, blank or not a number. */
+    public static long getLong(String key, long fallback) {
+        String v = get(key);
+        if (v.isEmpty()) return fallback;
+        try {
+            return Long.parseLong(v);
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring non-numeric {}={}", key, v);
+            return fallback;
+        }
+    }
+
     /** Return CSV as list of trimmed non-empty strings. If key missing or blank => empty list. */
     public static List<String> getList(String key) {
         String v = get(key);
@@ -52,4 +91,145 @@ public final class ConfigManager {
                 .map(s -> s.toLowerCase(Locale.ROOT))
                 .collect(Collectors.toSet());
     }
+
+    /** Return CSV compiled into a case-insensitive {@link KeywordMatcher} (empty matcher if key missing or blank). */
+    public static KeywordMatcher getMatcher(String key) {
+        List<String> tokens = getList(key);
+        return tokens.isEmpty() ? KeywordMatcher.empty() : KeywordMatcher.compile(tokens);
+    }
+
+    /**
+     * Re-read the file and swap it in. A file that cannot be read or parsed leaves the current values in place.
+     *
+     * @return true when new values were installed
+     */
+    public static boolean reload() {
+        Map<String, String> values;
+        try {
+            values = load();
+        } catch (RuntimeException e) {
+            log.warn("Config reload failed, keeping the current values: {}", e.getMessage());
+            return false;
+        }
+        Snapshot previous = current.get();
+        if (values.equals(previous.values())) return false;
+        Snapshot next = new Snapshot(values, previous.version() + 1);
+        if (!current.compareAndSet(previous, next)) return false; // a concurrent reload won
+        log.info("Configuration reloaded (version {})", next.version());
+        return true;
+    }
+
+    /**
+     * Reload on every change to the config file, from a daemon thread. No-op when already watching or when
+     * the file is not on the file system.
+     */
+    public static synchronized void watchForChanges() {
+        if (watcher != null) return;
+        Path file = file();
+        if (file == null) {
+            log.info("{} is not a plain file; live reload disabled", RESOURCE);
+            return;
+        }
+        try {
+            WatchService ws = FileSystems.getDefault().newWatchService();
+            // editors often save by replacing the file, so watch the directory and filter by name
+            file.getParent().register(ws, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            watcher = ws;
+            Thread t = new Thread(() -> watchLoop(ws, file), "config-watch");
+            t.setDaemon(true);
+            t.start();
+            log.info("Watching {} for changes", file);
+        } catch (IOException e) {
+            log.warn("Could not watch {}: {}", file, e.getMessage());
+        }
+    }
+
+    public static synchronized void stopWatching() {
+        if (watcher == null) return;
+        try {
+            watcher.close();
+        } catch (IOException e) {
+            log.debug("Closing config watcher: {}", e.getMessage());
+        }
+        watcher = null;
+    }
+
+    private static void watchLoop(WatchService ws, Path file) {
+        try {
+            while (true) {
+                WatchKey key = ws.take();
+                boolean changed = key.pollEvents().stream()
+                        .anyMatch(e -> file.getFileName().equals(e.context()));
+                key.reset();
+                if (!changed) continue;
+                // a file caught mid-save still parses (as fewer keys), so wait for the writer to finish first
+                awaitStable(file);
+                while (ws.poll() != null) {
+                    // coalesce the burst of events one save produces
+                }
+                reload();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            log.debug("Config watcher closed");
+        }
+    }
+
+    /** Waits until the file's size and modification time read the same twice, {@link #SETTLE_MAX_MS} at most. */
+    private static void awaitStable(Path file) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + SETTLE_MAX_MS;
+        String previous = null;
+        while (System.currentTimeMillis() < deadline) {
+            Thread.sleep(SETTLE_POLL_MS);
+            String current;
+            try {
+                current = Files.size(file) + "@" + Files.getLastModifiedTime(file).toMillis();
+            } catch (IOException e) {
+                current = null; // replaced by a rename that has not landed yet
+            }
+            if (current != null && current.equals(previous)) return;
+            previous = current;
+        }
+        log.warn("{} kept changing for {} ms; reading it anyway", file, SETTLE_MAX_MS);
+    }
+
+    private static Map<String, String> load() {
+        Properties props = new Properties();
+        Path source = sourceFile();
+        try (InputStream is = source == null
+                ? Thread.currentThread().getContextClassLoader().getResourceAsStream(RESOURCE)
+                : Files.newInputStream(source)) {
+            if (is == null) throw new RuntimeException(RESOURCE + " not found on classpath");
+            // load using UTF-8
+            try (Reader reader = new InputStreamReader(is, StandardCharsets.UTF_8)) {
+                props.load(reader);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            throw new RuntimeException("Failed to load " + (source == null ? RESOURCE : source), e);
+        }
+        Map<String, String> values = new HashMap<>();
+        for (String name : props.stringPropertyNames()) values.put(name, props.getProperty(name));
+        return Map.copyOf(values);
+    }
+
+    /** {@code -Dconfig.file}, else the source copy in the working directory, or null to use the classpath. */
+    private static Path sourceFile() {
+        String override = System.getProperty("config.file", "").trim();
+        if (!override.isEmpty()) return Path.of(override).toAbsolutePath();
+        return Files.isRegularFile(SOURCE_FILE) ? SOURCE_FILE.toAbsolutePath() : null;
+    }
+
+    /** The config file on disk, or null when it only exists inside a jar. */
+    private static Path file() {
+        Path source = sourceFile();
+        if (source != null) return source;
+        URL url = Thread.currentThread().getContextClassLoader().getResource(RESOURCE);
+        if (url == null || !"file".equals(url.getProtocol())) return null;
+        try {
+            return Path.of(url.toURI());
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
 }
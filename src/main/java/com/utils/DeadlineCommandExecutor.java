@@ -0,0 +1,74 @@
+package com.utils;
+
+import io.appium.java_client.MobileCommand;
+import io.appium.java_client.remote.AppiumCommandExecutor;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URL;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Appium command executor that gives every command a deadline.
+ * <p>
+ * Sessions run with very long server-side timeouts (newCommandTimeout, adb and UiAutomator2 launch), so a
+ * wedged UiAutomator2 server can hold a {@code findElement} or {@code perform} for hours. Each command is sent
+ * from its own virtual thread and the caller waits at most {@code command.timeout.ms} (default 30 s; a single
+ * command can be given its own, e.g. {@code command.timeout.getPageSource.ms}; 0 disables). On expiry the
+ * request is cancelled and {@link CommandTimeoutException} is thrown, which {@link Utils} handles like any
+ * other broken session: {@link DriverHolder#repair} and carry on. Session creation keeps the server's own
+ * launch timeouts. Values are read per command, so they follow config reloads.
+ */
+public class DeadlineCommandExecutor extends AppiumCommandExecutor {
+    private static final Logger log = LoggerFactory.getLogger(DeadlineCommandExecutor.class);
+
+    private static final long DEFAULT_TIMEOUT_MS = 30_000;
+
+    private static final ExecutorService COMMANDS =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("driver-command-", 0).factory());
+
+    public DeadlineCommandExecutor(URL remoteAddress) {
+        super(MobileCommand.commandRepository, remoteAddress);
+    }
+
+    @Override
+    public Response execute(Command command) throws WebDriverException {
+        String name = command.getName();
+        long deadline = DriverCommand.NEW_SESSION.equals(name) ? 0 : deadlineMillis(name);
+        if (deadline <= 0) return super.execute(command);
+
+        Future<Response> pending = COMMANDS.submit(() -> super.execute(command));
+        try {
+            return pending.get(deadline, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            pending.cancel(true); // interrupts the sender, which aborts the HTTP exchange
+            Metrics.increment("command.timeout");
+            log.warn("⏱️ Driver command '{}' exceeded its {} ms deadline; cancelled", name, deadline);
+            throw new CommandTimeoutException(name, deadline);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error err) throw err;
+            throw new WebDriverException(cause);
+        } catch (InterruptedException e) {
+            pending.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new WebDriverException("Interrupted while waiting for driver command '" + name + "'", e);
+        }
+    }
+
+    /** Deadline for a command: {@code command.timeout.<name>.ms}, else {@code command.timeout.ms}, else 30 s. */
+    static long deadlineMillis(String command) {
+        return ConfigManager.getLong("command.timeout." + command + ".ms",
+                ConfigManager.getLong("command.timeout.ms", DEFAULT_TIMEOUT_MS));
+    }
+}
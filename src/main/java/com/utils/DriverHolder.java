@@ -0,0 +1,190 @@
+package com.utils;
+
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Single owner of the live Appium session, shared by {@code Snap} and {@link Utils}.
+ * <p>
+ * Every session gets a generation number. Callers read {@link #generation()} before a device call and pass
+ * it to {@link #repair} when the call fails; repair is single-flight, so only the first caller for a given
+ * generation builds a new session (via {@link SessionSupervisor}) and everyone else — concurrent threads or
+ * an outer catch after an inner one already repaired — gets the session that replaced it. The retired
+ * session is quit in the background so a dead server does not stall the run.
+ */
+public final class DriverHolder {
+    private static final Logger log = LoggerFactory.getLogger(DriverHolder.class);
+
+    // this many cheap recoveries within the window, with no new session in between, escalate one tier
+    private static final int ESCALATE_AFTER = 3;
+    private static final long ESCALATION_WINDOW_NANOS = 10_000_000_000L;
+
+    private final ReentrantLock repairLock = new ReentrantLock();
+    private final Object escalation = new Object();
+    private long streakGeneration = -1;
+    private long streakStartNanos;
+    private int streak;
+    private volatile AndroidDriver driver;
+    private volatile long generation;
+
+    public DriverHolder(AndroidDriver driver) {
+        this.driver = driver;
+    }
+
+    /** The current session; never cached by callers across a repair. */
+    public AndroidDriver driver() {
+        AndroidDriver current = driver;
+        if (current == null) throw new IllegalStateException("Driver holder is closed");
+        return current;
+    }
+
+    public long generation() {
+        return generation;
+    }
+
+    /**
+     * Recovery for a failed call on the session of {@code observedGeneration}, as cheap as the failure allows
+     * ({@link FailureClassifier}): RETRY and REFIND keep the session (the caller tries again or looks the element
+     * up again), RELAUNCH_APP brings Snapchat back to the foreground when the session still answers, and only
+     * NEW_SESSION goes to {@link #repair}. Cheap recoveries that keep piling up escalate one tier. Every
+     * recovery is counted as {@code recovery.<tier>}, every escalation as {@code recovery.escalated}.
+     *
+     * @return the session to use from now on
+     */
+    public AndroidDriver recover(long observedGeneration, Exception cause) {
+        FailureClassifier.Tier tier = escalate(observedGeneration, FailureClassifier.classify(cause));
+        Metrics.increment("recovery." + tier.name().toLowerCase(java.util.Locale.ROOT));
+        switch (tier) {
+            case RETRY, REFIND -> {
+                log.debug("Recovering from '{}' with {}", firstLine(cause), tier);
+                return driver();
+            }
+            case RELAUNCH_APP -> {
+                if (bringAppToFront()) {
+                    log.info("Recovered from '{}' without a new session (app checked / brought to front)", firstLine(cause));
+                    return driver();
+                }
+                Metrics.increment("recovery.escalated");
+                return repair(observedGeneration, cause);
+            }
+            default -> {
+                return repair(observedGeneration, cause);
+            }
+        }
+    }
+
+    /**
+     * Replaces the session of {@code observedGeneration} unless someone already did.
+     *
+     * @return the session to use from now on
+     */
+    public AndroidDriver repair(long observedGeneration, Exception cause) {
+        repairLock.lock();
+        try {
+            if (generation != observedGeneration || driver == null) {
+                log.debug("Session generation {} already replaced (now {}); skipping repair for: {}",
+                        observedGeneration, generation, cause.getMessage());
+                return driver();
+            }
+            AndroidDriver old = driver;
+            AndroidDriver fresh = SessionSupervisor.get().replace(cause);
+            driver = fresh;
+            generation = observedGeneration + 1;
+            log.info("Session generation {} -> {} ({})", observedGeneration, generation, fresh.getSessionId());
+            retire(old);
+            return fresh;
+        } finally {
+            repairLock.unlock();
+        }
+    }
+
+    /** Quit the current session; later calls to {@link #driver()} fail. */
+    public void close() {
+        repairLock.lock();
+        try {
+            AndroidDriver current = driver;
+            driver = null;
+            if (current == null) return;
+            log.info("Quitting AndroidDriver session...");
+            current.quit();
+        } catch (WebDriverException e) {
+            log.warn("Error quitting driver: {}", e.getMessage());
+        } finally {
+            repairLock.unlock();
+        }
+    }
+
+    /**
+     * Hands the current session back without quitting it (kept alive for the next run); later calls to
+     * {@link #driver()} fail.
+     *
+     * @return the session, or null when already closed
+     */
+    public AndroidDriver release() {
+        repairLock.lock();
+        try {
+            AndroidDriver current = driver;
+            driver = null;
+            return current;
+        } finally {
+            repairLock.unlock();
+        }
+    }
+
+    private FailureClassifier.Tier escalate(long observedGeneration, FailureClassifier.Tier tier) {
+        if (tier == FailureClassifier.Tier.NEW_SESSION) return tier;
+        synchronized (escalation) {
+            long now = System.nanoTime();
+            if (observedGeneration != streakGeneration || now - streakStartNanos > ESCALATION_WINDOW_NANOS) {
+                streakGeneration = observedGeneration;
+                streakStartNanos = now;
+                streak = 0;
+            }
+            if (++streak < ESCALATE_AFTER) return tier;
+            streak = 0;
+            streakStartNanos = now;
+        }
+        FailureClassifier.Tier next = tier.next();
+        Metrics.increment("recovery.escalated");
+        log.info("{} cheap recoveries in a row; escalating {} -> {}", ESCALATE_AFTER, tier, next);
+        return next;
+    }
+
+    /** True when the session answers and Snapchat is (now) in the foreground. */
+    private boolean bringAppToFront() {
+        try {
+            AndroidDriver current = driver();
+            if (!Utils.APP_PACKAGE.equals(current.getCurrentPackage())) {
+                log.info("Snapchat is not in the foreground; activating it");
+                current.activateApp(Utils.APP_PACKAGE);
+            }
+            return true;
+        } catch (WebDriverException | IllegalStateException e) {
+            log.debug("Session did not answer the app check: {}", firstLine(e));
+            return false;
+        }
+    }
+
+    private static String firstLine(Exception e) {
+        String m = String.valueOf(e.getMessage());
+        int nl = m.indexOf('\n');
+        return nl < 0 ? m : m.substring(0, nl);
+    }
+
+    private static void retire(AndroidDriver old) {
+        if (old == null) return;
+        Thread.ofVirtual().name("session-retire").start(() -> {
+            Object id = old.getSessionId();
+            try {
+                old.quit();
+                log.debug("Retired session {}", id);
+            } catch (WebDriverException e) {
+                log.debug("Retired session was already gone: {}", e.getMessage());
+            }
+        });
+    }
+}
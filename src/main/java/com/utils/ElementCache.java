@@ -0,0 +1,69 @@
+package com.utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Element handles found on the current screen, so a second lookup of the same {@link By} costs no device call.
+ * <p>
+ * Entries belong to one screen generation: every action that may change the screen (click, tap, gesture,
+ * back, ENTER, keyboard, settle wait) calls {@link #screenChanged}, which drops them all, and a new session drops
+ * them too. Only non-empty results are kept, since a missing element may still appear. A handle is revalidated
+ * by using it: when the action reports it stale, the caller {@link #evict}s it and looks it up again.
+ * One cache per {@link Utils}, used from the thread that drives the run.
+ */
+final class ElementCache {
+
+    private final boolean enabled;
+    private final Map<By, List<WebElement>> handles = new HashMap<>();
+    private long session = -1;
+    private long screen;
+
+    ElementCache(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /** The handles found for {@code by} on the current screen of session {@code sessionGeneration}, or null. */
+    List<WebElement> get(By by, long sessionGeneration) {
+        if (!enabled) return null;
+        if (sessionGeneration != session) {
+            handles.clear();
+            session = sessionGeneration;
+        }
+        List<WebElement> cached = handles.get(by);
+        Metrics.increment(cached == null ? "elementCache.miss" : "elementCache.hit");
+        return cached;
+    }
+
+    /** Keeps {@code found} for {@code by} unless it is empty or the screen changed while it was being looked up. */
+    void put(By by, List<WebElement> found, long sessionGeneration, long lookedUpOnScreen) {
+        if (!enabled || found.isEmpty() || lookedUpOnScreen != screen) return;
+        if (sessionGeneration != session) {
+            handles.clear();
+            session = sessionGeneration;
+        }
+        handles.put(by, List.copyOf(found));
+    }
+
+    boolean contains(By by) {
+        return handles.containsKey(by);
+    }
+
+    void evict(By by) {
+        handles.remove(by);
+    }
+
+    /** The screen may have changed: every handle is dropped and the generation advances. */
+    void screenChanged() {
+        handles.clear();
+        screen++;
+    }
+
+    long screen() {
+        return screen;
+    }
+}
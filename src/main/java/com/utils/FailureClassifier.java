@@ -0,0 +1,77 @@
+package com.utils;
+
+import org.openqa.selenium.InvalidElementStateException;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.interactions.MoveTargetOutOfBoundsException;
+import org.openqa.selenium.remote.UnreachableBrowserException;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Decides how much recovery a failed driver call needs, cheapest first.
+ * <p>
+ * Most failures are about one element or one moment (stale or intercepted element, a wait that ran out, no
+ * keyboard to hide) and only need the caller's retry or a fresh lookup. A failure nobody recognises may mean
+ * the app crashed or lost the foreground, which bringing it back fixes. Only a dead, wedged or unreachable
+ * session needs a new one, which costs seconds. {@link DriverHolder#recover} acts on the tier.
+ */
+public final class FailureClassifier {
+
+    /** Recovery tiers, in escalation order. */
+    public enum Tier {
+        /** Transient: the caller tries again as is. */
+        RETRY,
+        /** The element reference is no good: the caller looks it up again. */
+        REFIND,
+        /** The session answers but the app may not: bring Snapchat back to the foreground. */
+        RELAUNCH_APP,
+        /** The session is gone or wedged: build a new one. */
+        NEW_SESSION;
+
+        /** The next, more expensive tier (NEW_SESSION stays). */
+        public Tier next() {
+            return this == NEW_SESSION ? NEW_SESSION : values()[ordinal() + 1];
+        }
+    }
+
+    // UiAutomator2 / Appium server messages for a session that will not recover by itself
+    private static final List<String> SESSION_LOST = List.of(
+            "instrumentation process is not running", "uiautomator2 server", "socket hang up", "econnrefused",
+            "connection refused", "cannot be proxied", "session is either terminated or not started",
+            "session does not exist");
+
+    private static final List<String> TRANSIENT = List.of("soft keyboard not present", "keyboard is not shown");
+
+    private FailureClassifier() {}
+
+    public static Tier classify(Throwable e) {
+        if (e instanceof CommandTimeoutException || e instanceof NoSuchSessionException
+                || e instanceof SessionNotCreatedException || e instanceof UnreachableBrowserException) {
+            return Tier.NEW_SESSION;
+        }
+        String message = firstLine(e);
+        if (SESSION_LOST.stream().anyMatch(message::contains)) return Tier.NEW_SESSION;
+        if (e instanceof StaleElementReferenceException || e instanceof NoSuchElementException
+                || e instanceof InvalidElementStateException) { // includes intercepted / not interactable
+            return Tier.REFIND;
+        }
+        if (e instanceof TimeoutException || e instanceof MoveTargetOutOfBoundsException
+                || TRANSIENT.stream().anyMatch(message::contains)) {
+            return Tier.RETRY;
+        }
+        return Tier.RELAUNCH_APP; // unrecognised: check the app before paying for a session
+    }
+
+    /** Lower-cased first line of the message: Selenium appends build and driver info after it. */
+    private static String firstLine(Throwable e) {
+        String m = e.getMessage();
+        if (m == null) return "";
+        int nl = m.indexOf('\n');
+        return (nl < 0 ? m : m.substring(0, nl)).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,169 @@
+package com.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Case-insensitive "name contains any of these tokens" check, compiled once into an Aho-Corasick automaton.
+ * <p>
+ * Matching is a single pass over the text's code points with no allocation; the work per character does not
+ * depend on how many tokens there are. Case is folded per code point ({@code toLowerCase(toUpperCase(c))}),
+ * so e.g. "BEST", "best" and "Beſt" are the same, and non-BMP characters (emoji) match as whole code points.
+ * When several tokens occur, the one listed first in config wins, as with the earlier linear scan.
+ */
+public final class KeywordMatcher {
+
+    private static final KeywordMatcher EMPTY = compile(List.of());
+
+    private final List<String> tokens;
+    // transitions of state s are symbols[edgeStart[s]..edgeStart[s+1]) (sorted) -> targets[...]
+    private final int[] edgeStart;
+    private final int[] symbols;
+    private final int[] targets;
+    private final int[] fail;
+    // lowest token index ending at this state, directly or through its fail chain; -1 if none
+    private final int[] best;
+
+    private KeywordMatcher(List<String> tokens, int[] edgeStart, int[] symbols, int[] targets, int[] fail, int[] best) {
+        this.tokens = tokens;
+        this.edgeStart = edgeStart;
+        this.symbols = symbols;
+        this.targets = targets;
+        this.fail = fail;
+        this.best = best;
+    }
+
+    public static KeywordMatcher empty() {
+        return EMPTY;
+    }
+
+    /** Compile trimmed, non-blank tokens in order; later tokens that fold to an earlier one are dropped. */
+    public static KeywordMatcher compile(Collection<String> rawTokens) {
+        List<String> tokens = new ArrayList<>();
+        List<Map<Integer, Integer>> trie = new ArrayList<>();
+        List<Integer> ends = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        ends.add(-1);
+        for (String raw : rawTokens) {
+            if (raw == null || raw.isBlank()) continue;
+            String token = raw.trim();
+            int state = 0;
+            for (int i = 0; i < token.length(); ) {
+                int cp = token.codePointAt(i);
+                i += Character.charCount(cp);
+                Integer next = trie.get(state).get(fold(cp));
+                if (next == null) {
+                    next = trie.size();
+                    trie.get(state).put(fold(cp), next);
+                    trie.add(new TreeMap<>());
+                    ends.add(-1);
+                }
+                state = next;
+            }
+            if (ends.get(state) >= 0) continue;
+            ends.set(state, tokens.size());
+            tokens.add(token);
+        }
+
+        int n = trie.size();
+        int[] edgeStart = new int[n + 1];
+        for (int s = 0; s < n; s++) edgeStart[s + 1] = edgeStart[s] + trie.get(s).size();
+        int[] symbols = new int[edgeStart[n]];
+        int[] targets = new int[edgeStart[n]];
+        for (int s = 0; s < n; s++) {
+            int e = edgeStart[s];
+            for (Map.Entry<Integer, Integer> edge : trie.get(s).entrySet()) {
+                symbols[e] = edge.getKey();
+                targets[e++] = edge.getValue();
+            }
+        }
+
+        // breadth-first, so a state's fail target (strictly shorter) is finished before the state itself
+        int[] fail = new int[n];
+        int[] best = new int[n];
+        best[0] = -1;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int e = edgeStart[0]; e < edgeStart[1]; e++) queue.add(targets[e]);
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            best[s] = minIndex(ends.get(s), best[fail[s]]);
+            for (int e = edgeStart[s]; e < edgeStart[s + 1]; e++) {
+                int child = targets[e];
+                int f = fail[s];
+                int to;
+                while ((to = step(edgeStart, symbols, targets, f, symbols[e])) < 0 && f != 0) f = fail[f];
+                fail[child] = to < 0 || to == child ? 0 : to;
+                queue.add(child);
+            }
+        }
+        return new KeywordMatcher(Collections.unmodifiableList(tokens), edgeStart, symbols, targets, fail, best);
+    }
+
+    /** Index (in {@link #tokens()}) of the first-listed token contained in {@code text}, or -1. */
+    public int indexIn(CharSequence text) {
+        return scan(text, false);
+    }
+
+    /** The first-listed token contained in {@code text} (as written in config), or null. */
+    public String find(CharSequence text) {
+        int i = indexIn(text);
+        return i < 0 ? null : tokens.get(i);
+    }
+
+    /** True if any token is contained in {@code text}; stops at the first one found. */
+    public boolean matches(CharSequence text) {
+        return scan(text, true) >= 0;
+    }
+
+    public boolean isEmpty() {
+        return tokens.isEmpty();
+    }
+
+    public List<String> tokens() {
+        return tokens;
+    }
+
+    @Override
+    public String toString() {
+        return tokens.toString();
+    }
+
+    private int scan(CharSequence text, boolean anyMatch) {
+        if (text == null || tokens.isEmpty()) return -1;
+        int state = 0;
+        int found = -1;
+        for (int i = 0, len = text.length(); i < len; ) {
+            int cp = Character.codePointAt(text, i);
+            i += Character.charCount(cp);
+            int symbol = fold(cp);
+            int to;
+            while ((to = step(edgeStart, symbols, targets, state, symbol)) < 0 && state != 0) state = fail[state];
+            state = Math.max(to, 0);
+            found = minIndex(found, best[state]);
+            if (found == 0 || (anyMatch && found > 0)) return found;
+        }
+        return found;
+    }
+
+    private static int step(int[] edgeStart, int[] symbols, int[] targets, int state, int symbol) {
+        int e = Arrays.binarySearch(symbols, edgeStart[state], edgeStart[state + 1], symbol);
+        return e < 0 ? -1 : targets[e];
+    }
+
+    private static int fold(int cp) {
+        if (cp < 0x80) return cp >= 'A' && cp <= 'Z' ? cp + ('a' - 'A') : cp;
+        return Character.toLowerCase(Character.toUpperCase(cp));
+    }
+
+    private static int minIndex(int a, int b) {
+        if (a < 0) return b;
+        if (b < 0) return a;
+        return Math.min(a, b);
+    }
+}
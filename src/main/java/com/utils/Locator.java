@@ -0,0 +1,551 @@
+package com.utils;
+
+import io.appium.java_client.AppiumBy;
+import org.openqa.selenium.By;
+import org.openqa.selenium.InvalidArgumentException;
+import org.openqa.selenium.InvalidSelectorException;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * An XPath locator compiled to the fastest equivalent UiAutomator2 strategy.
+ * <p>
+ * {@link #compile(String)} parses the XPath subset used in this project ({@code //class[@attr="v"]},
+ * {@code starts-with}, {@code contains}, {@code matches}, positional steps, unions and {@code (..)[n]}).
+ * Single-step locators become {@code AppiumBy.id}, {@code accessibilityId}, {@code className} or an
+ * {@code androidUIAutomator} UiSelector with identical semantics; everything else stays XPath. If the
+ * server rejects the native selector the locator switches itself to XPath for the rest of the run.
+ * <p>
+ * The parsed model can also be evaluated against a {@link UiSnapshot}, so the same constants work for
+ * snapshot lookups without any device call.
+ */
+public final class Locator extends By {
+    private static final Logger log = LoggerFactory.getLogger(Locator.class);
+
+    private static final List<String> SNAPSHOT_ATTRS = List.of("resource-id", "text", "content-desc", "class");
+
+    private final String xpath;
+    private final By xpathBy;
+    private final Expr expr;        // null when the XPath is outside the supported subset
+    private final By nativeBy;      // null when no equivalent native strategy exists
+    private final String strategy;
+    private volatile boolean nativeEnabled;
+
+    private Locator(String xpath, Expr expr, By nativeBy, String strategy) {
+        this.xpath = xpath;
+        this.xpathBy = By.xpath(xpath);
+        this.expr = expr;
+        this.nativeBy = nativeBy;
+        this.strategy = strategy;
+        this.nativeEnabled = nativeBy != null;
+    }
+
+    /** Compile an XPath. Never fails: unsupported expressions simply keep the XPath strategy. */
+    public static Locator compile(String xpath) {
+        Expr expr;
+        try {
+            Parser p = new Parser(xpath);
+            expr = p.parseUnion();
+            p.expectEnd();
+        } catch (IllegalArgumentException e) {
+            log.debug("Locator kept as XPath ({}): {}", e.getMessage(), xpath);
+            return new Locator(xpath, null, null, "xpath");
+        }
+        Native n = toNative(expr);
+        return n == null ? new Locator(xpath, expr, null, "xpath") : new Locator(xpath, expr, n.by, n.strategy);
+    }
+
+    /** Locator for {@code //tag[@attr=value]}, with {@code value} quoted for XPath whatever quotes it holds. */
+    public static Locator attributeEquals(String tag, String attr, String value) {
+        return compile("//" + tag + "[@" + attr + "=" + xpathLiteral(value) + "]");
+    }
+
+    @Override
+    public List<WebElement> findElements(SearchContext context) {
+        if (nativeEnabled) {
+            try {
+                return context.findElements(nativeBy);
+            } catch (InvalidSelectorException | InvalidArgumentException | UnsupportedCommandException e) {
+                disableNative(e);
+            }
+        }
+        return context.findElements(xpathBy);
+    }
+
+    @Override
+    public WebElement findElement(SearchContext context) {
+        if (nativeEnabled) {
+            try {
+                return context.findElement(nativeBy);
+            } catch (InvalidSelectorException | InvalidArgumentException | UnsupportedCommandException e) {
+                disableNative(e);
+            }
+        }
+        return context.findElement(xpathBy);
+    }
+
+    private void disableNative(WebDriverException e) {
+        nativeEnabled = false;
+        log.warn("Native selector {} rejected ({}); falling back to XPath {}", nativeBy, e.getClass().getSimpleName(), xpath);
+    }
+
+    public String xpath() {
+        return xpath;
+    }
+
+    /** Strategy currently used on the device: id, accessibilityId, className, uiautomator or xpath. */
+    public String strategy() {
+        return nativeEnabled ? strategy : "xpath";
+    }
+
+    /** The By actually sent to the device. */
+    public By deviceBy() {
+        return nativeEnabled ? nativeBy : xpathBy;
+    }
+
+    /** True when {@link #findIn} can evaluate this locator against a snapshot. */
+    public boolean supportsSnapshot() {
+        return expr != null && expr.snapshotSafe();
+    }
+
+    /**
+     * Matching nodes in document order, evaluated locally. {@code root} -1 means the whole tree; relative
+     * paths ({@code .//}) and absolute ones both search below {@code root}, as element-scoped lookups do.
+     *
+     * @throws IllegalStateException when {@link #supportsSnapshot()} is false
+     */
+    public int[] findIn(UiSnapshot ui, int root) {
+        if (!supportsSnapshot()) throw new IllegalStateException("Locator not evaluable on a snapshot: " + xpath);
+        return expr.eval(ui, root);
+    }
+
+    /** First matching node or -1. */
+    public int findFirstIn(UiSnapshot ui, int root) {
+        int[] found = findIn(ui, root);
+        return found.length == 0 ? -1 : found[0];
+    }
+
+    /**
+     * Every strategy that could serve this locator, most specific first, each with its snapshot model so
+     * {@link LocatorProfiler} can check equivalence offline. XPath is always last.
+     */
+    List<Candidate> candidates() {
+        List<Candidate> out = new ArrayList<>();
+        if (nativeBy != null) out.add(new Candidate(strategy, nativeBy, expr));
+        if (expr instanceof PathExpr path && path.steps.size() == 1) {
+            Step step = path.steps.get(0);
+            for (Pred pred : step.preds) {
+                if (pred.kind == Kind.EQ && pred.attr.equals("resource-id") && !"id".equals(strategy)) {
+                    out.add(new Candidate("id", AppiumBy.id(pred.value), relaxed(path, pred)));
+                }
+                if (pred.kind == Kind.EQ && pred.attr.equals("content-desc") && !"accessibilityId".equals(strategy)) {
+                    out.add(new Candidate("accessibilityId", AppiumBy.accessibilityId(pred.value), relaxed(path, pred)));
+                }
+            }
+            if (step.tag.contains(".") && !"className".equals(strategy)) {
+                out.add(new Candidate("className", AppiumBy.className(step.tag),
+                        new PathExpr(path.relative, List.of(new Step(step.descendant, step.tag, List.of())))));
+            }
+        }
+        out.add(new Candidate("xpath", xpathBy, expr));
+        return out;
+    }
+
+    /** Path with a single step reduced to "any tag + this one predicate" (what id/accessibilityId match). */
+    private static Expr relaxed(PathExpr path, Pred keep) {
+        Step step = path.steps.get(0);
+        return new PathExpr(path.relative, List.of(new Step(step.descendant, "*", List.of(keep))));
+    }
+
+    record Candidate(String strategy, By by, Expr model) { }
+
+    @Override
+    public String toString() {
+        return "By.compiled[" + strategy() + "]: " + xpath;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Locator other && other.xpath.equals(xpath);
+    }
+
+    @Override
+    public int hashCode() {
+        return xpath.hashCode();
+    }
+
+    // ---------------------------------------------------------------- native compilation
+
+    private record Native(By by, String strategy) { }
+
+    private static Native toNative(Expr expr) {
+        if (!(expr instanceof PathExpr path) || path.steps.size() != 1) return null;
+        Step step = path.steps.get(0);
+        if (!step.descendant) return null;
+        boolean anyTag = step.tag.equals("*");
+        if (!anyTag && !step.tag.contains(".")) return null; // odd tags (e.g. javaClass) are not class names
+        for (Pred pred : step.preds) {
+            if (pred.kind == Kind.POSITION || pred.attr.equals("class")) return null;
+        }
+
+        if (step.preds.isEmpty()) {
+            return anyTag ? null : new Native(AppiumBy.className(step.tag), "className");
+        }
+        if (anyTag && step.preds.size() == 1 && step.preds.get(0).kind == Kind.EQ) {
+            Pred only = step.preds.get(0);
+            if (only.attr.equals("resource-id")) return new Native(AppiumBy.id(only.value), "id");
+            if (only.attr.equals("content-desc")) return new Native(AppiumBy.accessibilityId(only.value), "accessibilityId");
+        }
+
+        StringBuilder ui = new StringBuilder("new UiSelector()");
+        if (!anyTag) ui.append(".className(").append(uiLiteral(step.tag)).append(')');
+        for (Pred pred : step.preds) {
+            String call = uiSelectorCall(pred);
+            if (call == null) return null;
+            ui.append('.').append(call);
+        }
+        return new Native(AppiumBy.androidUIAutomator(ui.toString()), "uiautomator");
+    }
+
+    /** UiSelector method call with the same semantics as one XPath predicate, or null. */
+    private static String uiSelectorCall(Pred pred) {
+        return switch (pred.attr) {
+            case "resource-id" -> switch (pred.kind) {
+                case EQ -> "resourceId(" + uiLiteral(pred.value) + ")";
+                case STARTS_WITH -> "resourceIdMatches(" + uiLiteral("(?s)" + Pattern.quote(pred.value) + ".*") + ")";
+                case CONTAINS -> "resourceIdMatches(" + uiLiteral("(?s).*" + Pattern.quote(pred.value) + ".*") + ")";
+                case MATCHES -> "resourceIdMatches(" + uiLiteral(fullMatchRegex(pred.value)) + ")";
+                default -> null;
+            };
+            case "content-desc" -> switch (pred.kind) {
+                case EQ -> "description(" + uiLiteral(pred.value) + ")";
+                case STARTS_WITH -> "descriptionStartsWith(" + uiLiteral(pred.value) + ")";
+                case CONTAINS -> "descriptionContains(" + uiLiteral(pred.value) + ")";
+                case MATCHES -> "descriptionMatches(" + uiLiteral(fullMatchRegex(pred.value)) + ")";
+                default -> null;
+            };
+            case "text" -> switch (pred.kind) {
+                case EQ -> "text(" + uiLiteral(pred.value) + ")";
+                case STARTS_WITH -> "textStartsWith(" + uiLiteral(pred.value) + ")";
+                case CONTAINS -> "textContains(" + uiLiteral(pred.value) + ")";
+                case MATCHES -> "textMatches(" + uiLiteral(fullMatchRegex(pred.value)) + ")";
+                default -> null;
+            };
+            default -> null;
+        };
+    }
+
+    /** UiSelector *Matches() is a full match while XPath matches() is a find; anchor accordingly. */
+    private static String fullMatchRegex(String xpathRegex) {
+        if (xpathRegex.startsWith("^") && xpathRegex.endsWith("$")) return xpathRegex;
+        return "(?s).*(?:" + xpathRegex + ").*";
+    }
+
+    /** XPath 1.0 string literal for a value; XPath has no escapes, so one holding both quote kinds needs concat(). */
+    static String xpathLiteral(String value) {
+        if (!value.contains("'")) return "'" + value + "'";
+        if (!value.contains("\"")) return '"' + value + '"';
+        return "concat('" + value.replace("'", "', \"'\", '") + "')";
+    }
+
+    /** Java/UiSelector string literal for a value. */
+    static String uiLiteral(String value) {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    // ---------------------------------------------------------------- model + snapshot evaluation
+
+    enum Kind { EQ, STARTS_WITH, CONTAINS, MATCHES, POSITION }
+
+    record Pred(Kind kind, String attr, String value, Pattern regex, int position) {
+        boolean test(UiSnapshot ui, int node) {
+            String actual = switch (attr) {
+                case "resource-id" -> ui.resourceId(node);
+                case "text" -> ui.text(node);
+                case "content-desc" -> ui.contentDesc(node);
+                case "class" -> ui.className(node);
+                default -> throw new IllegalStateException("attribute not in snapshot: " + attr);
+            };
+            return switch (kind) {
+                case EQ -> actual.equals(value);
+                case STARTS_WITH -> actual.startsWith(value);
+                case CONTAINS -> actual.contains(value);
+                case MATCHES -> regex.matcher(actual).find();
+                case POSITION -> throw new IllegalStateException("positional predicate tested directly");
+            };
+        }
+    }
+
+    record Step(boolean descendant, String tag, List<Pred> preds) {
+        boolean hasPosition() {
+            for (Pred p : preds) if (p.kind == Kind.POSITION) return true;
+            return false;
+        }
+    }
+
+    sealed interface Expr permits PathExpr, UnionExpr, IndexedExpr {
+        int[] eval(UiSnapshot ui, int root);
+
+        boolean snapshotSafe();
+    }
+
+    record PathExpr(boolean relative, List<Step> steps) implements Expr {
+        @Override
+        public int[] eval(UiSnapshot ui, int root) {
+            int[] context = {root};
+            for (Step step : steps) {
+                boolean[] mark = new boolean[ui.size()];
+                for (int ctx : context) {
+                    if (step.descendant && !step.hasPosition()) {
+                        int from = ctx < 0 ? 0 : ctx + 1;
+                        int to = ctx < 0 ? ui.size() : ui.subtreeEnd(ctx);
+                        for (int i = from; i < to; i++) {
+                            if (matchesFilters(ui, step, i)) mark[i] = true;
+                        }
+                    } else if (step.descendant) {
+                        // descendant-or-self::node()/child::step — positions are per parent
+                        applyChildStep(ui, step, ctx, mark);
+                        int from = ctx < 0 ? 0 : ctx + 1;
+                        int to = ctx < 0 ? ui.size() : ui.subtreeEnd(ctx);
+                        for (int i = from; i < to; i++) applyChildStep(ui, step, i, mark);
+                    } else {
+                        applyChildStep(ui, step, ctx, mark);
+                    }
+                }
+                context = collect(mark);
+            }
+            return context;
+        }
+
+        @Override
+        public boolean snapshotSafe() {
+            for (Step step : steps) {
+                for (Pred p : step.preds) {
+                    if (p.kind != Kind.POSITION && !SNAPSHOT_ATTRS.contains(p.attr)) return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean matchesFilters(UiSnapshot ui, Step step, int node) {
+            if (!step.tag.equals("*") && !step.tag.equals(ui.className(node))) return false;
+            for (Pred p : step.preds) {
+                if (p.kind != Kind.POSITION && !p.test(ui, node)) return false;
+            }
+            return true;
+        }
+
+        /** child::step from one parent, applying predicates in order (positions count survivors so far). */
+        private static void applyChildStep(UiSnapshot ui, Step step, int parent, boolean[] mark) {
+            List<Integer> current = new ArrayList<>();
+            int end = parent < 0 ? ui.size() : ui.subtreeEnd(parent);
+            for (int c = parent < 0 ? 0 : parent + 1; c < end; c = ui.subtreeEnd(c)) {
+                if (step.tag.equals("*") || step.tag.equals(ui.className(c))) current.add(c);
+            }
+            for (Pred p : step.preds) {
+                if (p.kind == Kind.POSITION) {
+                    current = p.position <= current.size() ? List.of(current.get(p.position - 1)) : List.of();
+                } else {
+                    List<Integer> next = new ArrayList<>();
+                    for (int c : current) if (p.test(ui, c)) next.add(c);
+                    current = next;
+                }
+            }
+            for (int c : current) mark[c] = true;
+        }
+    }
+
+    record UnionExpr(List<Expr> parts) implements Expr {
+        @Override
+        public int[] eval(UiSnapshot ui, int root) {
+            boolean[] mark = new boolean[ui.size()];
+            for (Expr part : parts) for (int n : part.eval(ui, root)) mark[n] = true;
+            return collect(mark);
+        }
+
+        @Override
+        public boolean snapshotSafe() {
+            for (Expr part : parts) if (!part.snapshotSafe()) return false;
+            return true;
+        }
+    }
+
+    record IndexedExpr(Expr inner, int index) implements Expr {
+        @Override
+        public int[] eval(UiSnapshot ui, int root) {
+            int[] all = inner.eval(ui, root);
+            return index <= all.length ? new int[]{all[index - 1]} : new int[0];
+        }
+
+        @Override
+        public boolean snapshotSafe() {
+            return inner.snapshotSafe();
+        }
+    }
+
+    private static int[] collect(boolean[] mark) {
+        int n = 0;
+        for (boolean b : mark) if (b) n++;
+        int[] out = new int[n];
+        int k = 0;
+        for (int i = 0; i < mark.length; i++) if (mark[i]) out[k++] = i;
+        return out;
+    }
+
+    // ---------------------------------------------------------------- parser
+
+    /** Recursive-descent parser for the XPath subset; throws IllegalArgumentException on anything else. */
+    private static final class Parser {
+        private final String s;
+        private int pos;
+
+        Parser(String s) {
+            this.s = s;
+        }
+
+        Expr parseUnion() {
+            List<Expr> parts = new ArrayList<>();
+            parts.add(parsePath());
+            while (peek('|')) {
+                pos++;
+                parts.add(parsePath());
+            }
+            return parts.size() == 1 ? parts.get(0) : new UnionExpr(List.copyOf(parts));
+        }
+
+        private Expr parsePath() {
+            skipWs();
+            if (peek('(')) {
+                pos++;
+                Expr inner = parseUnion();
+                expect(')');
+                if (peek('[')) {
+                    pos++;
+                    int index = parseInt();
+                    expect(']');
+                    return new IndexedExpr(inner, index);
+                }
+                return inner;
+            }
+            boolean relative = false;
+            if (s.startsWith(".", pos)) {
+                relative = true;
+                pos++;
+            }
+            List<Step> steps = new ArrayList<>();
+            while (s.startsWith("/", pos)) {
+                boolean descendant = s.startsWith("//", pos);
+                pos += descendant ? 2 : 1;
+                steps.add(parseStep(descendant));
+            }
+            if (steps.isEmpty()) throw new IllegalArgumentException("expected a location path at " + pos);
+            return new PathExpr(relative, List.copyOf(steps));
+        }
+
+        private Step parseStep(boolean descendant) {
+            String tag;
+            if (peek('*')) {
+                pos++;
+                tag = "*";
+            } else {
+                tag = parseName();
+            }
+            List<Pred> preds = new ArrayList<>();
+            while (peek('[')) {
+                pos++;
+                preds.add(parsePred());
+                expect(']');
+            }
+            return new Step(descendant, tag, List.copyOf(preds));
+        }
+
+        private Pred parsePred() {
+            skipWs();
+            if (pos < s.length() && Character.isDigit(s.charAt(pos))) {
+                return new Pred(Kind.POSITION, null, null, null, parseInt());
+            }
+            if (peek('@')) {
+                pos++;
+                String attr = parseName();
+                expect('=');
+                return new Pred(Kind.EQ, attr, parseLiteral(), null, 0);
+            }
+            String fn = parseName();
+            Kind kind = switch (fn) {
+                case "starts-with" -> Kind.STARTS_WITH;
+                case "contains" -> Kind.CONTAINS;
+                case "matches" -> Kind.MATCHES;
+                default -> throw new IllegalArgumentException("unsupported function " + fn);
+            };
+            expect('(');
+            expect('@');
+            String attr = parseName();
+            expect(',');
+            String value = parseLiteral();
+            expect(')');
+            return new Pred(kind, attr, value, kind == Kind.MATCHES ? Pattern.compile(value) : null, 0);
+        }
+
+        private String parseName() {
+            skipWs();
+            int start = pos;
+            while (pos < s.length()) {
+                char c = s.charAt(pos);
+                if (Character.isLetterOrDigit(c) || c == '.' || c == '_' || c == '-' || c == '$') pos++;
+                else break;
+            }
+            if (start == pos) throw new IllegalArgumentException("expected a name at " + pos);
+            return s.substring(start, pos);
+        }
+
+        private String parseLiteral() {
+            skipWs();
+            if (pos >= s.length() || (s.charAt(pos) != '\'' && s.charAt(pos) != '"')) {
+                throw new IllegalArgumentException("expected a string literal at " + pos);
+            }
+            char quote = s.charAt(pos++);
+            int end = s.indexOf(quote, pos);
+            if (end < 0) throw new IllegalArgumentException("unterminated literal");
+            String value = s.substring(pos, end);
+            pos = end + 1;
+            return value;
+        }
+
+        private int parseInt() {
+            skipWs();
+            int start = pos;
+            while (pos < s.length() && Character.isDigit(s.charAt(pos))) pos++;
+            if (start == pos) throw new IllegalArgumentException("expected a number at " + pos);
+            int value = Integer.parseInt(s.substring(start, pos));
+            if (value < 1) throw new IllegalArgumentException("positions start at 1");
+            return value;
+        }
+
+        private boolean peek(char c) {
+            skipWs();
+            return pos < s.length() && s.charAt(pos) == c;
+        }
+
+        private void expect(char c) {
+            if (!peek(c)) throw new IllegalArgumentException("expected '" + c + "' at " + pos);
+            pos++;
+        }
+
+        private void expectEnd() {
+            skipWs();
+            if (pos != s.length()) throw new IllegalArgumentException("unexpected input at " + pos);
+        }
+
+        private void skipWs() {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) pos++;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.utils;
+
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranks the candidate strategies of each {@link Locator}.
+ * <p>
+ * Offline ({@link #rankOffline}) every candidate is evaluated against captured page sources: a candidate is
+ * only usable when it selects exactly the nodes the XPath selects on every capture. Cost is estimated as
+ * nodes touched per lookup — XPath serializes the whole hierarchy, native strategies stop at the first match.
+ * Live ({@link #rankLive}) each candidate is timed on the current device screen.
+ * <p>
+ * Usage: {@code java com.utils.LocatorProfiler [--class com.snap.Snap] page1.xml page2.xml ...}
+ */
+public final class LocatorProfiler {
+    private static final Logger log = LoggerFactory.getLogger(LocatorProfiler.class);
+
+    private LocatorProfiler() {}
+
+    /** One ranked candidate. Cost is estimated nodes touched (offline) or median ms (live). */
+    public record Result(String locator, String strategy, String by, boolean equivalent, double cost, double speedup) { }
+
+    public static List<Result> rankOffline(Map<String, Locator> locators, List<UiSnapshot> sources) {
+        List<Result> out = new ArrayList<>();
+        for (Map.Entry<String, Locator> e : locators.entrySet()) {
+            Locator locator = e.getValue();
+            if (!locator.supportsSnapshot()) {
+                out.add(new Result(e.getKey(), "xpath", locator.xpath(), true, Double.NaN, 1.0));
+                continue;
+            }
+            List<Result> rows = new ArrayList<>();
+            double xpathCost = 0;
+            for (Locator.Candidate c : locator.candidates()) {
+                boolean equivalent = true;
+                double cost = 0;
+                for (UiSnapshot ui : sources) {
+                    int[] expected = locator.findIn(ui, -1);
+                    int[] actual = c.model().eval(ui, -1);
+                    equivalent &= Arrays.equals(expected, actual);
+                    cost += c.strategy().equals("xpath") ? ui.size() : (actual.length == 0 ? ui.size() : actual[0] + 1);
+                }
+                cost = sources.isEmpty() ? 0 : cost / sources.size();
+                if (c.strategy().equals("xpath")) xpathCost = cost;
+                rows.add(new Result(e.getKey(), c.strategy(), c.by().toString(), equivalent, cost, 0));
+            }
+            out.addAll(ranked(rows, xpathCost));
+        }
+        return out;
+    }
+
+    /** Time every candidate of every locator on the current screen, {@code iterations} lookups each. */
+    public static List<Result> rankLive(AndroidDriver driver, Map<String, Locator> locators, int iterations) {
+        List<Result> out = new ArrayList<>();
+        for (Map.Entry<String, Locator> e : locators.entrySet()) {
+            List<Locator.Candidate> candidates = e.getValue().candidates();
+            double[] medians = new double[candidates.size()];
+            int[] counts = new int[candidates.size()];
+            for (int c = 0; c < candidates.size(); c++) {
+                long[] samples = new long[iterations];
+                try {
+                    for (int i = 0; i < iterations; i++) {
+                        long start = System.nanoTime();
+                        counts[c] = driver.findElements(candidates.get(c).by()).size();
+                        samples[i] = System.nanoTime() - start;
+                    }
+                    Arrays.sort(samples);
+                    medians[c] = samples[iterations / 2] / 1_000_000.0;
+                } catch (WebDriverException ex) {
+                    log.debug("{} rejected {}: {}", e.getKey(), candidates.get(c).strategy(), ex.getMessage());
+                    medians[c] = Double.NaN;
+                    counts[c] = -1;
+                }
+            }
+            // XPath is always the last candidate and the reference; live equivalence is a count check on this screen
+            int ref = candidates.size() - 1;
+            List<Result> rows = new ArrayList<>();
+            for (int c = 0; c < candidates.size(); c++) {
+                Locator.Candidate cand = candidates.get(c);
+                rows.add(new Result(e.getKey(), cand.strategy(), cand.by().toString(),
+                        counts[c] >= 0 && counts[c] == counts[ref], medians[c], 0));
+            }
+            out.addAll(ranked(rows, medians[ref]));
+        }
+        return out;
+    }
+
+    private static List<Result> ranked(List<Result> rows, double xpathCost) {
+        return rows.stream()
+                .map(r -> new Result(r.locator(), r.strategy(), r.by(), r.equivalent(), r.cost(),
+                        r.cost() > 0 ? xpathCost / r.cost() : 1.0))
+                .sorted(Comparator.comparing((Result r) -> !r.equivalent())
+                        .thenComparingDouble(r -> Double.isNaN(r.cost()) ? Double.MAX_VALUE : r.cost()))
+                .toList();
+    }
+
+    /** Static {@link Locator} fields of a class (private ones included), by field name. */
+    public static Map<String, Locator> locatorsOf(Class<?> type) {
+        Map<String, Locator> out = new LinkedHashMap<>();
+        for (Field f : type.getDeclaredFields()) {
+            if (!Modifier.isStatic(f.getModifiers()) || !Locator.class.isAssignableFrom(f.getType())) continue;
+            try {
+                f.setAccessible(true);
+                out.put(f.getName(), (Locator) f.get(null));
+            } catch (IllegalAccessException e) {
+                log.warn("Could not read locator field {}: {}", f.getName(), e.getMessage());
+            }
+        }
+        return out;
+    }
+
+    public static void report(List<Result> results) {
+        String current = null;
+        for (Result r : results) {
+            if (!r.locator().equals(current)) {
+                current = r.locator();
+                log.info("{}", current);
+            }
+            log.info("    {} {} cost={} speedup={}x {}", r.equivalent() ? "✅" : "❌", r.strategy(),
+                    String.format("%.1f", r.cost()), String.format("%.1f", r.speedup()), r.by());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String className = "com.snap.Snap";
+        List<UiSnapshot> sources = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--class") && i + 1 < args.length) {
+                className = args[++i];
+            } else {
+                sources.add(load(Path.of(args[i])));
+            }
+        }
+        Map<String, Locator> locators = locatorsOf(Class.forName(className, false, LocatorProfiler.class.getClassLoader()));
+        log.info("Profiling {} locators of {} against {} page sources", locators.size(), className, sources.size());
+        report(rankOffline(locators, sources));
+    }
+
+    private static UiSnapshot load(Path path) throws IOException {
+        return UiSnapshot.parse(Files.readString(path, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,235 @@
+package com.utils;
+
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Run-wide latency histograms and counters.
+ * <p>
+ * Callers time an operation with {@code long t = Metrics.start(); try { ... } finally { Metrics.record("op", t); }};
+ * recording is a map lookup and a few atomic adds, no allocation once the operation has been seen. Histograms
+ * are log-linear (HDR style: 32 sub-buckets per power of two of microseconds, ~3% error), so p50/p99 stay
+ * accurate from sub-millisecond lookups to multi-second waits. {@link #writeReport} writes JSON and
+ * Prometheus text at the end of a run.
+ */
+public final class Metrics {
+    private static final Logger log = LoggerFactory.getLogger(Metrics.class);
+
+    private static final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private static volatile long runStartNanos = System.nanoTime();
+    private static volatile Instant runStart = Instant.now();
+
+    private Metrics() {}
+
+    /** Clear everything and start the run clock (friends per minute is measured from here). */
+    public static void startRun() {
+        histograms.clear();
+        counters.clear();
+        runStartNanos = System.nanoTime();
+        runStart = Instant.now();
+    }
+
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    /** Record the time since {@code startNanos} (from {@link #start()}) under {@code name}. */
+    public static void record(String name, long startNanos) {
+        recordNanos(name, System.nanoTime() - startNanos);
+    }
+
+    public static void recordNanos(String name, long nanos) {
+        histograms.computeIfAbsent(name, n -> new Histogram()).record(nanos);
+    }
+
+    public static void increment(String name) {
+        counters.computeIfAbsent(name, n -> new LongAdder()).increment();
+    }
+
+    public static long count(String name) {
+        LongAdder c = counters.get(name);
+        return c == null ? 0 : c.sum();
+    }
+
+    public static Histogram histogram(String name) {
+        return histograms.get(name);
+    }
+
+    /**
+     * Concurrent log-linear histogram of durations, bucketed in microseconds.
+     */
+    public static final class Histogram {
+        private static final int SUB_BITS = 5;
+        private static final int SUB = 1 << SUB_BITS;
+        private static final int BUCKETS = SUB + (64 - SUB_BITS) * SUB;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            if (nanos < 0) nanos = 0;
+            buckets.incrementAndGet(index(nanos / 1_000));
+            count.increment();
+            totalNanos.add(nanos);
+            if (nanos > maxNanos.get()) maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        public long totalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long maxNanos() {
+            return maxNanos.get();
+        }
+
+        /** Value at quantile {@code q} (0..1) in nanoseconds; the midpoint of its bucket, capped at the max. */
+        public long quantileNanos(double q) {
+            long n = count();
+            if (n == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(q * n));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) return Math.min((lowerMicros(i) + upperMicros(i)) / 2 * 1_000, maxNanos());
+            }
+            return maxNanos();
+        }
+
+        static int index(long micros) {
+            if (micros < SUB) return (int) micros;
+            int exp = 63 - Long.numberOfLeadingZeros(micros);
+            int sub = (int) (micros >>> (exp - SUB_BITS)) - SUB;
+            return SUB + (exp - SUB_BITS) * SUB + sub;
+        }
+
+        static long lowerMicros(int index) {
+            if (index < SUB) return index;
+            int exp = (index - SUB) / SUB + SUB_BITS;
+            long sub = (index - SUB) % SUB + SUB;
+            return sub << (exp - SUB_BITS);
+        }
+
+        static long upperMicros(int index) {
+            if (index < SUB) return index + 1;
+            int exp = (index - SUB) / SUB + SUB_BITS;
+            return lowerMicros(index) + (1L << (exp - SUB_BITS));
+        }
+    }
+
+    /**
+     * Write {@code run-<time>.json} and {@code run-<time>.prom} into {@code dir} and log the slowest operations.
+     * {@code friends} is the number of friends acted on; repairs come from {@link SessionSupervisor#stats()}.
+     */
+    public static void writeReport(Path dir, long friends) {
+        double seconds = (System.nanoTime() - runStartNanos) / 1e9;
+        double perMinute = seconds <= 0 ? 0 : friends / (seconds / 60);
+        SessionSupervisor.Stats repairs = SessionSupervisor.get().stats();
+        Map<String, Histogram> ops = sorted();
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("startedAt", runStart.toString());
+        json.put("durationSeconds", round(seconds));
+        json.put("friends", friends);
+        json.put("friendsPerMinute", round(perMinute));
+        Map<String, Object> repair = new LinkedHashMap<>();
+        repair.put("count", repairs.repairs());
+        repair.put("totalMs", round(repairs.totalNanos() / 1e6));
+        repair.put("maxMs", round(repairs.maxNanos() / 1e6));
+        json.put("repairs", repair);
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counters.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(e -> counts.put(e.getKey(), e.getValue().sum()));
+        json.put("counters", counts);
+        Map<String, Object> operations = new LinkedHashMap<>();
+        ops.forEach((name, h) -> {
+            Map<String, Object> o = new LinkedHashMap<>();
+            o.put("count", h.count());
+            o.put("p50Ms", round(h.quantileNanos(0.50) / 1e6));
+            o.put("p90Ms", round(h.quantileNanos(0.90) / 1e6));
+            o.put("p99Ms", round(h.quantileNanos(0.99) / 1e6));
+            o.put("maxMs", round(h.maxNanos() / 1e6));
+            o.put("totalMs", round(h.totalNanos() / 1e6));
+            operations.put(name, o);
+        });
+        json.put("operations", operations);
+
+        StringBuilder prom = new StringBuilder();
+        prom.append("# HELP snap_operation_seconds Latency of Utils operations and per-friend phases.\n");
+        prom.append("# TYPE snap_operation_seconds summary\n");
+        ops.forEach((name, h) -> {
+            for (double q : new double[]{0.5, 0.9, 0.99}) {
+                prom.append("snap_operation_seconds{op=\"").append(name).append("\",quantile=\"").append(q).append("\"} ")
+                        .append(seconds(h.quantileNanos(q))).append('\n');
+            }
+            prom.append("snap_operation_seconds_sum{op=\"").append(name).append("\"} ").append(seconds(h.totalNanos())).append('\n');
+            prom.append("snap_operation_seconds_count{op=\"").append(name).append("\"} ").append(h.count()).append('\n');
+        });
+        prom.append("# TYPE snap_events_total counter\n");
+        counts.forEach((name, value) -> prom.append("snap_events_total{event=\"").append(name).append("\"} ").append(value).append('\n'));
+        prom.append("# TYPE snap_driver_repairs_total counter\n");
+        prom.append("snap_driver_repairs_total ").append(repairs.repairs()).append('\n');
+        prom.append("# TYPE snap_driver_repair_seconds_sum counter\n");
+        prom.append("snap_driver_repair_seconds_sum ").append(seconds(repairs.totalNanos())).append('\n');
+        prom.append("# TYPE snap_friends_total counter\n");
+        prom.append("snap_friends_total ").append(friends).append('\n');
+        prom.append("# TYPE snap_friends_per_minute gauge\n");
+        prom.append("snap_friends_per_minute ").append(String.format(Locale.ROOT, "%.3f", perMinute)).append('\n');
+        prom.append("# TYPE snap_run_seconds gauge\n");
+        prom.append("snap_run_seconds ").append(String.format(Locale.ROOT, "%.3f", seconds)).append('\n');
+
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        try {
+            Files.createDirectories(dir);
+            Files.writeString(dir.resolve("run-" + stamp + ".json"), new Json().toJson(json), StandardCharsets.UTF_8);
+            Files.writeString(dir.resolve("run-" + stamp + ".prom"), prom, StandardCharsets.UTF_8);
+            log.info("Metrics report written to {}/run-{}.json|.prom", dir, stamp);
+        } catch (IOException e) {
+            log.warn("Could not write metrics report to {}: {}", dir, e.getMessage());
+        }
+
+        log.info("Run: {} friends in {} s ({} friends/min)", friends, String.format("%.1f", seconds), String.format("%.1f", perMinute));
+        ops.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Histogram> e) -> e.getValue().totalNanos()).reversed())
+                .limit(10)
+                .forEach(e -> log.info("    {} x{} total {} ms, p50 {} ms, p99 {} ms", e.getKey(), e.getValue().count(),
+                        e.getValue().totalNanos() / 1_000_000, String.format("%.1f", e.getValue().quantileNanos(0.5) / 1e6),
+                        String.format("%.1f", e.getValue().quantileNanos(0.99) / 1e6)));
+    }
+
+    private static Map<String, Histogram> sorted() {
+        Map<String, Histogram> out = new LinkedHashMap<>();
+        histograms.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(e -> out.put(e.getKey(), e.getValue()));
+        return out;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.6f", nanos / 1e9);
+    }
+}
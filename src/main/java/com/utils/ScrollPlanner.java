@@ -0,0 +1,58 @@
+package com.utils;
+
+/**
+ * Plans one precise scroll per target instead of fixed-size swipes.
+ * <p>
+ * The planner learns the height of the elements it is asked to bring into view (exponential moving average
+ * of unclipped bounds) and knows the safe viewport. UiAutomator2 reports bounds clipped to the visible area,
+ * so a target cut off at an edge is recognised by being shorter than the learned height and its real center
+ * is extrapolated; a target clipped to nothing is moved by one full safe viewport.
+ */
+public final class ScrollPlanner {
+
+    private final int topSafeZone;
+    private final int bottomSafeZone;
+    private volatile double rowHeight; // 0 until the first unclipped observation
+
+    public ScrollPlanner(int topSafeZone, int bottomSafeZone) {
+        this.topSafeZone = topSafeZone;
+        this.bottomSafeZone = bottomSafeZone;
+    }
+
+    public boolean isInSafeViewport(int left, int top, int right, int bottom, int screenWidth, int screenHeight) {
+        return top >= topSafeZone && bottom <= screenHeight - bottomSafeZone && left >= 0 && right <= screenWidth;
+    }
+
+    /** Feed the bounds of a target; only plausible, unclipped heights update the estimate. */
+    public void observe(int top, int bottom, int screenHeight) {
+        int h = bottom - top;
+        if (h <= 1 || top <= 0 || bottom >= screenHeight) return;
+        double current = rowHeight;
+        rowHeight = current == 0 ? h : current * 0.8 + h * 0.2;
+    }
+
+    /** Height of the area a single gesture may drag across. */
+    public int safeHeight(int screenHeight) {
+        return Math.max(1, screenHeight - topSafeZone - bottomSafeZone);
+    }
+
+    /**
+     * Pixels the content has to move up (positive) or down (negative) so the target's center lands on the
+     * center of the safe viewport.
+     */
+    public int offsetToSafeCenter(int top, int bottom, int screenHeight) {
+        int safeCenter = topSafeZone + safeHeight(screenHeight) / 2;
+        int h = bottom - top;
+        if (h <= 1) {
+            // clipped to nothing: we only know which edge it sits behind; move one full page that way
+            return top >= screenHeight / 2 ? safeHeight(screenHeight) : -safeHeight(screenHeight);
+        }
+        double expected = rowHeight;
+        int center = (top + bottom) / 2;
+        if (expected > 0 && h < expected * 0.6) {
+            // partially clipped: extrapolate the real center from the learned height
+            center = top >= screenHeight / 2 ? top + (int) (expected / 2) : bottom - (int) (expected / 2);
+        }
+        return center - safeCenter;
+    }
+}
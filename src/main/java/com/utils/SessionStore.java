@@ -0,0 +1,84 @@
+package com.utils;
+
+import io.appium.java_client.android.AndroidDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * The Appium session a run leaves behind for the next one ({@code session.reuse.enable}).
+ * <p>
+ * A properties file ({@code session.reuse.file}, default {@code session/session.properties}) holding the server
+ * URL, session id, automation name and when it was saved. It is written when a session is created and again
+ * on close, replaced atomically, and deleted when the saved session turns out to be gone.
+ */
+final class SessionStore {
+    private static final Logger log = LoggerFactory.getLogger(SessionStore.class);
+
+    record Saved(String serverUrl, String sessionId, String automationName, long savedAt) { }
+
+    private final Path file;
+
+    private SessionStore(Path file) {
+        this.file = file;
+    }
+
+    static SessionStore fromConfig() {
+        String configured = ConfigManager.get("session.reuse.file");
+        return new SessionStore(Path.of(configured.isEmpty() ? "session/session.properties" : configured));
+    }
+
+    /** The saved session, or null when there is none (or the file is unreadable). */
+    Saved load() {
+        if (!Files.exists(file)) return null;
+        Properties p = new Properties();
+        try (Reader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            p.load(r);
+            String server = p.getProperty("server.url", "");
+            String id = p.getProperty("session.id", "");
+            if (server.isEmpty() || id.isEmpty()) return null;
+            return new Saved(server, id, p.getProperty("automation.name", "UiAutomator2"),
+                    Long.parseLong(p.getProperty("saved.at", "0")));
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Ignoring unreadable saved session {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    void save(String serverUrl, AndroidDriver driver) {
+        Object automation = driver.getCapabilities().getCapability("appium:automationName");
+        Properties p = new Properties();
+        p.setProperty("server.url", serverUrl);
+        p.setProperty("session.id", String.valueOf(driver.getSessionId()));
+        p.setProperty("automation.name", automation == null ? "UiAutomator2" : automation.toString());
+        p.setProperty("saved.at", Long.toString(System.currentTimeMillis()));
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                p.store(w, "Appium session kept alive for the next run");
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Saved session {} to {}", driver.getSessionId(), file);
+        } catch (IOException e) {
+            // only costs the next run a fresh session
+            log.warn("Could not save session to {}: {}", file, e.getMessage());
+        }
+    }
+
+    void clear() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete saved session {}: {}", file, e.getMessage());
+        }
+    }
+}
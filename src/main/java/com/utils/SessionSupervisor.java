@@ -0,0 +1,88 @@
+package com.utils;
+
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.MalformedURLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Owns driver replacement: a broken session is rebuilt on the same server and device, without the fixed 1 s
+ * sleeps, retrying with a short backoff. Each rebuild still pays for a full new session; only the waiting around
+ * it is gone. Every replacement is timed; see {@link #stats()}.
+ */
+public final class SessionSupervisor {
+    private static final Logger log = LoggerFactory.getLogger(SessionSupervisor.class);
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long FIRST_BACKOFF_MS = 100;
+
+    private static final SessionSupervisor INSTANCE = new SessionSupervisor();
+
+    /** Repair metrics: count and latency in nanoseconds. */
+    public record Stats(long repairs, long totalNanos, long maxNanos, long lastNanos) {
+        public double averageMillis() {
+            return repairs == 0 ? 0 : totalNanos / 1_000_000.0 / repairs;
+        }
+    }
+
+    private final AtomicLong repairs = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLong lastNanos = new AtomicLong();
+
+    private SessionSupervisor() {}
+
+    public static SessionSupervisor get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Replacement for a failed session, on the same server and device, built with a short backoff between
+     * attempts. The caller owns the returned driver.
+     */
+    public AndroidDriver replace(Exception cause) {
+        log.warn("⚠️ Driver session broken or threw: {}", cause.toString());
+        long start = System.nanoTime();
+
+        long backoff = FIRST_BACKOFF_MS;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                AndroidDriver fresh = Utils.repairDriver();
+                record(start, attempt);
+                return fresh;
+            } catch (MalformedURLException ex) {
+                throw new RuntimeException("Failed to repair driver due to MalformedURLException", ex);
+            } catch (WebDriverException ex) {
+                log.error("Attempt {} to repair driver failed: {}", attempt, ex.getMessage());
+                sleep(backoff);
+                backoff *= 4;
+            }
+        }
+        throw new RuntimeException("Could not repair driver after retries; check Appium server and device state.");
+    }
+
+    public Stats stats() {
+        return new Stats(repairs.get(), totalNanos.get(), maxNanos.get(), lastNanos.get());
+    }
+
+    private void record(long startNanos, int attempt) {
+        long took = System.nanoTime() - startNanos;
+        repairs.incrementAndGet();
+        totalNanos.addAndGet(took);
+        lastNanos.set(took);
+        maxNanos.accumulateAndGet(took, Math::max);
+        Metrics.recordNanos("driver.repair", took);
+        log.info("🔄 Driver repaired in {} ms (attempt {})", took / 1_000_000, attempt);
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
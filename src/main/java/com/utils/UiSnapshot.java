@@ -0,0 +1,289 @@
+package com.utils;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Compact, read-only copy of one UiAutomator2 page source.
+ * <p>
+ * The XML is stream-parsed once; every node is addressed by its index in document order.
+ * Strings are interned per snapshot and bounds are kept as primitive ints, so resolving
+ * sections / friends / names locally costs no device round trips.
+ */
+public final class UiSnapshot {
+
+    private static final XMLInputFactory XML_FACTORY = XMLInputFactory.newFactory();
+
+    static {
+        XML_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XML_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    private final int count;
+    private final String[] classNames;
+    private final String[] resourceIds;
+    private final String[] texts;
+    private final String[] contentDescs;
+    private final int[] parents;
+    private final int[] subtreeEnds; // exclusive index of the last descendant + 1
+    private final int[] bounds;      // x1,y1,x2,y2 per node
+    private final boolean[] displayed;
+    private final boolean[] scrollable;
+
+    private UiSnapshot(int count, String[] classNames, String[] resourceIds, String[] texts, String[] contentDescs,
+                       int[] parents, int[] subtreeEnds, int[] bounds, boolean[] displayed, boolean[] scrollable) {
+        this.count = count;
+        this.classNames = classNames;
+        this.resourceIds = resourceIds;
+        this.texts = texts;
+        this.contentDescs = contentDescs;
+        this.parents = parents;
+        this.subtreeEnds = subtreeEnds;
+        this.bounds = bounds;
+        this.displayed = displayed;
+        this.scrollable = scrollable;
+    }
+
+    /**
+     * Parse a page source returned by {@code driver.getPageSource()}.
+     * The root {@code hierarchy} element is skipped; its children become top-level nodes (parent -1).
+     */
+    public static UiSnapshot parse(String pageSource) {
+        Builder b = new Builder();
+        XMLStreamReader reader = null;
+        try {
+            reader = XML_FACTORY.createXMLStreamReader(new StringReader(pageSource));
+            int[] stack = new int[64];
+            int depth = 0;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String tag = reader.getLocalName();
+                    if (depth == 0 && "hierarchy".equals(tag)) {
+                        stack[depth++] = -1;
+                        continue;
+                    }
+                    int parent = depth == 0 ? -1 : stack[depth - 1];
+                    int idx = b.add(reader, tag, parent);
+                    if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+                    stack[depth++] = idx;
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    int idx = stack[--depth];
+                    if (idx >= 0) b.subtreeEnds[idx] = b.count;
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IllegalArgumentException("Could not parse page source: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) { }
+            }
+        }
+        return b.build();
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public String className(int node) {
+        return classNames[node];
+    }
+
+    /** resource-id, never null (empty when missing). */
+    public String resourceId(int node) {
+        return resourceIds[node];
+    }
+
+    /** text, never null (empty when missing). */
+    public String text(int node) {
+        return texts[node];
+    }
+
+    /** content-desc, never null (empty when missing). */
+    public String contentDesc(int node) {
+        return contentDescs[node];
+    }
+
+    public boolean isDisplayed(int node) {
+        return displayed[node];
+    }
+
+    public boolean isScrollable(int node) {
+        return scrollable[node];
+    }
+
+    public int parent(int node) {
+        return parents[node];
+    }
+
+    public int left(int node) {
+        return bounds[node * 4];
+    }
+
+    public int top(int node) {
+        return bounds[node * 4 + 1];
+    }
+
+    public int right(int node) {
+        return bounds[node * 4 + 2];
+    }
+
+    public int bottom(int node) {
+        return bounds[node * 4 + 3];
+    }
+
+    public int centerX(int node) {
+        return (left(node) + right(node)) / 2;
+    }
+
+    public int centerY(int node) {
+        return (top(node) + bottom(node)) / 2;
+    }
+
+    /** Exclusive end of the node's subtree; the next sibling (if any) starts here. */
+    public int subtreeEnd(int node) {
+        return subtreeEnds[node];
+    }
+
+    /**
+     * Hash of what is laid out in the subtree of {@code root} (-1: the whole tree), including root itself: class,
+     * resource-id, text, content-desc and bounds of every node. State flags such as focus are left out, so
+     * equal hashes mean the region looks the same.
+     */
+    public int layoutHash(int root) {
+        int from = root < 0 ? 0 : root;
+        int to = root < 0 ? count : subtreeEnds[root];
+        int h = to - from;
+        for (int i = from; i < to; i++) {
+            h = 31 * h + classNames[i].hashCode();
+            h = 31 * h + resourceIds[i].hashCode();
+            h = 31 * h + texts[i].hashCode();
+            h = 31 * h + contentDescs[i].hashCode();
+            for (int k = i * 4; k < i * 4 + 4; k++) h = 31 * h + bounds[k];
+        }
+        return h;
+    }
+
+    /** All nodes matching the filter, in document order. */
+    public int[] findAll(IntPredicate filter) {
+        return findAllIn(-1, filter);
+    }
+
+    /** Descendants of {@code root} matching the filter, in document order. Root -1 means the whole tree. */
+    public int[] findAllIn(int root, IntPredicate filter) {
+        int from = root < 0 ? 0 : root + 1;
+        int to = root < 0 ? count : subtreeEnds[root];
+        int[] out = new int[8];
+        int n = 0;
+        for (int i = from; i < to; i++) {
+            if (filter.test(i)) {
+                if (n == out.length) out = Arrays.copyOf(out, n * 2);
+                out[n++] = i;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /** First descendant of {@code root} matching the filter, or -1. Root -1 means the whole tree. */
+    public int findFirstIn(int root, IntPredicate filter) {
+        int from = root < 0 ? 0 : root + 1;
+        int to = root < 0 ? count : subtreeEnds[root];
+        for (int i = from; i < to; i++) {
+            if (filter.test(i)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Parse {@code [x1,y1][x2,y2]} into {@code dst[off..off+3]} without allocating.
+     *
+     * @return false when the value is missing or malformed
+     */
+    public static boolean parseBounds(CharSequence s, int[] dst, int off) {
+        if (s == null) return false;
+        int field = 0;
+        int value = 0;
+        boolean inNumber = false;
+        boolean negative = false;
+        for (int i = 0, n = s.length(); i < n && field < 4; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                inNumber = true;
+            } else if (c == '-' && !inNumber) {
+                negative = true;
+            } else if (inNumber) {
+                dst[off + field++] = negative ? -value : value;
+                value = 0;
+                inNumber = false;
+                negative = false;
+            }
+        }
+        if (inNumber && field < 4) dst[off + field++] = negative ? -value : value;
+        return field == 4;
+    }
+
+    private static final class Builder {
+        private final Map<String, String> pool = new HashMap<>();
+        private int count;
+        private String[] classNames = new String[256];
+        private String[] resourceIds = new String[256];
+        private String[] texts = new String[256];
+        private String[] contentDescs = new String[256];
+        private int[] parents = new int[256];
+        private int[] subtreeEnds = new int[256];
+        private int[] bounds = new int[256 * 4];
+        private boolean[] displayed = new boolean[256];
+        private boolean[] scrollable = new boolean[256];
+
+        int add(XMLStreamReader r, String tag, int parent) {
+            if (count == parents.length) grow();
+            int i = count++;
+            classNames[i] = intern(tag);
+            resourceIds[i] = intern(r.getAttributeValue(null, "resource-id"));
+            texts[i] = intern(r.getAttributeValue(null, "text"));
+            contentDescs[i] = intern(r.getAttributeValue(null, "content-desc"));
+            parents[i] = parent;
+            subtreeEnds[i] = i + 1;
+            parseBounds(r.getAttributeValue(null, "bounds"), bounds, i * 4);
+            String d = r.getAttributeValue(null, "displayed");
+            displayed[i] = d == null || "true".equals(d);
+            scrollable[i] = "true".equals(r.getAttributeValue(null, "scrollable"));
+            return i;
+        }
+
+        private String intern(String s) {
+            if (s == null || s.isEmpty()) return "";
+            String existing = pool.putIfAbsent(s, s);
+            return existing == null ? s : existing;
+        }
+
+        private void grow() {
+            int cap = parents.length * 2;
+            classNames = Arrays.copyOf(classNames, cap);
+            resourceIds = Arrays.copyOf(resourceIds, cap);
+            texts = Arrays.copyOf(texts, cap);
+            contentDescs = Arrays.copyOf(contentDescs, cap);
+            parents = Arrays.copyOf(parents, cap);
+            subtreeEnds = Arrays.copyOf(subtreeEnds, cap);
+            bounds = Arrays.copyOf(bounds, cap * 4);
+            displayed = Arrays.copyOf(displayed, cap);
+            scrollable = Arrays.copyOf(scrollable, cap);
+        }
+
+        UiSnapshot build() {
+            return new UiSnapshot(count, classNames, resourceIds, texts, contentDescs,
+                    parents, subtreeEnds, bounds, displayed, scrollable);
+        }
+    }
+}
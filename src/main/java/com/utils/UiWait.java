@@ -0,0 +1,145 @@
+package com.utils;
+
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Event-driven replacement for fixed sleeps.
+ * <p>
+ * A wait returns as soon as the UI is stable (two consecutive reads of the cheapest state that shows it, e.g.
+ * the scrolled element's rect or the layout of the target region, are equal) or the awaited condition holds.
+ * Each wait is bounded by what this run has learned about the action: the p95 of earlier settle times plus
+ * headroom, clamped to [{@link #MIN_BOUND}, {@link #MAX_BOUND}]. Until enough samples exist the legacy fixed
+ * timing is the bound.
+ * Stats are static so they survive {@link Utils} being recreated after a driver repair.
+ */
+public final class UiWait {
+    private static final Logger log = LoggerFactory.getLogger(UiWait.class);
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(150);
+    private static final Duration MIN_BOUND = Duration.ofMillis(300);
+    private static final Duration MAX_BOUND = Duration.ofSeconds(5);
+    private static final Duration LEARNING_BOUND = Duration.ofMillis(1500);
+    private static final int MIN_SAMPLES = 5;
+    private static final double HEADROOM = 1.5;
+
+    private static final Map<String, LatencyWindow> STATS = new ConcurrentHashMap<>();
+    private static final Object UNREAD = new Object();
+
+    private UiWait() {}
+
+    /**
+     * Wait until two consecutive reads after {@code action} have the same {@code key}. A read that fails with
+     * a {@link WebDriverException} counts as "still changing"; a {@link CommandTimeoutException} is rethrown.
+     *
+     * @return the last successful read (settled or not, so the caller need not read the state again), or null
+     * @throws CommandTimeoutException when a read misses its command deadline
+     */
+    public static <T> T settle(String action, Supplier<T> read, Function<? super T, ?> key) {
+        long start = System.nanoTime();
+        long deadline = start + boundFor(action).toNanos();
+        T last = null;
+        Object previous = UNREAD;
+        while (true) {
+            Object current = UNREAD;
+            try {
+                last = read.get();
+                current = key.apply(last);
+            } catch (CommandTimeoutException e) {
+                throw e; // a wedged session will not recover by polling it; let the caller repair
+            } catch (WebDriverException e) {
+                log.debug("settle('{}') read failed: {}", action, e.getMessage());
+            }
+            if (current != UNREAD && current.equals(previous)) {
+                record(action, start);
+                return last;
+            }
+            previous = current;
+            if (System.nanoTime() >= deadline) break;
+            pause();
+        }
+        log.debug("UI did not settle after '{}' within {} ms", action, boundFor(action).toMillis());
+        record(action, start);
+        return last;
+    }
+
+    /**
+     * Wait until {@code condition} holds after {@code action}, e.g. a reused element's text changed. The
+     * condition is polled as is; it decides itself what a failed lookup means.
+     *
+     * @return true when the condition held within the learned bound
+     * @throws CommandTimeoutException when a poll misses its command deadline
+     */
+    public static boolean until(String action, BooleanSupplier condition) {
+        long start = System.nanoTime();
+        long deadline = start + boundFor(action).toNanos();
+        do {
+            if (condition.getAsBoolean()) {
+                record(action, start);
+                return true;
+            }
+            pause();
+        } while (System.nanoTime() < deadline);
+        log.debug("Condition after '{}' not met within {} ms", action, boundFor(action).toMillis());
+        record(action, start);
+        return false;
+    }
+
+    /** Forget every learned bound, so the next run starts from the learning bound (benchmarks compare cold runs). */
+    public static void reset() {
+        STATS.clear();
+    }
+
+    /** Current bound for an action: learned p95 with headroom, or the learning bound while samples are few. */
+    public static Duration boundFor(String action) {
+        LatencyWindow w = STATS.get(action);
+        if (w == null || w.size() < MIN_SAMPLES) return LEARNING_BOUND;
+        long learned = (long) (w.percentile(0.95) * HEADROOM) + POLL_INTERVAL.toMillis();
+        return Duration.ofMillis(Math.max(MIN_BOUND.toMillis(), Math.min(MAX_BOUND.toMillis(), learned)));
+    }
+
+    private static void record(String action, long startNanos) {
+        STATS.computeIfAbsent(action, a -> new LatencyWindow()).add((System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(POLL_INTERVAL.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Fixed-size ring of recent samples; percentiles sort a copy (64 longs, cheap next to a device call). */
+    private static final class LatencyWindow {
+        private final long[] samples = new long[64];
+        private int next;
+        private int size;
+
+        synchronized void add(long millis) {
+            samples[next] = millis;
+            next = (next + 1) % samples.length;
+            if (size < samples.length) size++;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized long percentile(double p) {
+            long[] copy = Arrays.copyOf(samples, size);
+            Arrays.sort(copy);
+            int idx = (int) Math.ceil(p * size) - 1;
+            return copy[Math.max(0, Math.min(size - 1, idx))];
+        }
+    }
+}
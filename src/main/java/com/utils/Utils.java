@@ -1,12 +1,15 @@
 package com.utils;
 
+import io.appium.java_client.AppiumBy;
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.android.nativekey.AndroidKey;
 import io.appium.java_client.android.nativekey.KeyEvent;
 import io.appium.java_client.android.options.UiAutomator2Options;
+import io.appium.java_client.remote.AppiumW3CHttpCommandCodec;
 import org.openqa.selenium.*;
 import org.openqa.selenium.interactions.PointerInput;
 import org.openqa.selenium.interactions.Sequence;
+import org.openqa.selenium.remote.codec.w3c.W3CHttpResponseCodec;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.FluentWait;
 import org.openqa.selenium.support.ui.Wait;
@@ -17,128 +20,301 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
 import java.time.Duration;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 public class Utils {
     private static final Logger log = LoggerFactory.getLogger(Utils.class);
 
-    public AndroidDriver driver;
+    private final DriverHolder holder;
+    private final ElementCache elements = new ElementCache(ConfigManager.getBoolean("element.cache.enable"));
+
+    private static final String DEFAULT_APPIUM_URL = "http://127.0.0.1:4723/";
+    static final String APP_PACKAGE = "com.snapchat.android";
 
     // configurable timeouts
     private static final Duration DEFAULT_WAIT = Duration.ofSeconds(7);
     private static final Duration ACTION_RETRY_INTERVAL = Duration.ofMillis(500);
-    private static final int DRIVER_REPAIR_MAX_RETRIES = 2;
+    private static final int TOP_SAFE_ZONE = 500;    // px from top, tune as needed
+    private static final int BOTTOM_SAFE_ZONE = 200; // px from bottom
+    private static final int MAX_SCROLL_CORRECTIONS = 3;
+    private static final int SCROLL_SPEED = 2500;     // px/s, slow enough that scrollGesture does not fling
+
+    // shared across Utils instances so learned geometry survives driver repair
+    private static final ScrollPlanner SCROLL_PLANNER = new ScrollPlanner(TOP_SAFE_ZONE, BOTTOM_SAFE_ZONE);
+    private static volatile Dimension windowSize;
+    private static volatile boolean scrollGestureSupported = true;
+
+    public Utils(DriverHolder holder) {
+        this.holder = holder;
+    }
 
     public Utils(AndroidDriver driver) {
-        this.driver = driver;
+        this(new DriverHolder(driver));
+    }
+
+    /** Current session of the shared {@link DriverHolder}; re-read after every repair. */
+    public AndroidDriver getDriver() {
+        return holder.driver();
+    }
+
+    public DriverHolder getHolder() {
+        return holder;
+    }
+
+    /** Recovery sized to the failure ({@link DriverHolder#recover}); a new session only when nothing cheaper will do. */
+    private AndroidDriver recover(long generation, Exception e) {
+        elements.screenChanged(); // the failure may have come from a screen that is no longer shown
+        return holder.recover(generation, e);
+    }
+
+    /**
+     * Tells the element cache that the screen may have changed, for actions on a {@link WebElement} taken
+     * outside {@code Utils} (e.g. clicking a handle returned by {@link #findElements}).
+     */
+    public void screenChanged() {
+        elements.screenChanged();
     }
 
     /**
      * Scrolls element into view using element bounds when available.
-     * If bounds are not available it will use a safe directional swipe with retries.
+     * The {@link ScrollPlanner} turns the bounds into one precise gesture; a couple of correction passes
+     * absorb touch slop and clipped bounds. Without bounds it falls back to bounded page-sized scrolls.
+     *
+     * @return the {@code innerElement} found in the safe viewport, ready to act on without another lookup;
+     * null when it could not be brought there
      */
-    public void scrollElementIntoViewSafe(WebElement element, By innerElement) {
+    public WebElement scrollElementIntoViewSafe(WebElement element, By innerElement) {
+        long t0 = Metrics.start();
+        long gen = holder.generation();
         try {
             Dimension screenSize = getWindowSize();
             int screenWidth = screenSize.getWidth();
             int screenHeight = screenSize.getHeight();
-            int topSafeZone = 500;    // px from top, tune as needed
-            int bottomSafeZone = 200; // px from bottom
-            int maxRetries = 5000;      // prevent infinite scroll
-
-            for (int attempt = 0; attempt < maxRetries; attempt++) {
-                boolean elementVisible ;
-                int elementCenterY = screenHeight / 2;
+            int[] b = new int[4];
 
+            for (int attempt = 0; attempt <= MAX_SCROLL_CORRECTIONS; attempt++) {
+                int offset;
+                String bounds = null;
+                WebElement inner = null;
                 try {
-                    String bounds = element.findElement(innerElement).getAttribute("bounds");
-                    if (bounds != null && !bounds.isBlank()) {
-                        // parse [x1,y1][x2,y2]
-                        String[] parts = bounds.replace("[", "").replace("]", ",").split(",");
-                        int x1 = Integer.parseInt(parts[0].trim());
-                        int y1 = Integer.parseInt(parts[1].trim());
-                        int x2 = Integer.parseInt(parts[2].trim());
-                        int y2 = Integer.parseInt(parts[3].trim());
-
-                        elementCenterY = (y1 + y2) / 2;
-
-                        boolean visibleVertically = (y1 >= topSafeZone) && (y2 <= screenHeight - bottomSafeZone);
-                        boolean visibleHorizontally = (x1 >= 0) && (x2 <= screenWidth);
-
-                        elementVisible = visibleVertically && visibleHorizontally;
-                        log.debug("Bounds parsed: ({},{})-({},{}) | visibleVertically={} visibleHorizontally={}",
-                                x1, y1, x2, y2, visibleVertically, visibleHorizontally);
-
-                        if (elementVisible) {
-                            log.info("Element in safe viewport after {} attempts", attempt);
-                            return;
-                        }
-                    } else {
-                        log.debug("Element bounds empty or null; will attempt heuristic swipe.");
-                    }
+                    inner = element.findElement(innerElement);
+                    bounds = inner.getAttribute("bounds");
+                } catch (CommandTimeoutException ex) {
+                    throw ex;
                 } catch (Exception ex) {
-                    log.debug("Could not parse element bounds: {} — will attempt swipe. attempt={}", ex.getMessage(), attempt);
+                    log.debug("Could not read element bounds: {} — will attempt a page scroll. attempt={}", ex.getMessage(), attempt);
                 }
-
-                // Adaptive scroll distance
-                int distanceFromCenter = elementCenterY - (screenHeight / 2);
-                int scrollDistance = Math.min(Math.abs(distanceFromCenter), 300); // max 300 px
-                scrollDistance = Math.max(scrollDistance, 120); // minimum 120 px for more reliable movement
-
-                boolean scrollUp = distanceFromCenter > 0;
-                int startX = screenWidth / 2;
-                int startY = screenHeight / 2;
-                int endY = scrollUp ? startY - scrollDistance : startY + scrollDistance;
-
-                // Build swipe sequence
-                final var finger = new PointerInput(PointerInput.Kind.TOUCH, "finger");
-                var swipe = new Sequence(finger, 1);
-                swipe.addAction(finger.createPointerMove(Duration.ZERO, PointerInput.Origin.viewport(), startX, startY));
-                swipe.addAction(finger.createPointerDown(PointerInput.MouseButton.LEFT.asArg()));
-                swipe.addAction(finger.createPointerMove(Duration.ofMillis(200), PointerInput.Origin.viewport(), startX, endY));
-                swipe.addAction(finger.createPointerUp(PointerInput.MouseButton.LEFT.asArg()));
-
-                // perform swipe with retry on session issues
-                try {
-                    performSafe(swipe);
-                } catch (Exception e) {
-                    log.warn("Swipe attempt failed: {}", e.getMessage());
-                    driver = repairDriverSafely( e);
-                    performSafe(swipe);
+                if (UiSnapshot.parseBounds(bounds, b, 0)) {
+                    SCROLL_PLANNER.observe(b[1], b[3], screenHeight);
+                    boolean visible = SCROLL_PLANNER.isInSafeViewport(b[0], b[1], b[2], b[3], screenWidth, screenHeight);
+                    log.debug("Bounds parsed: ({},{})-({},{}) | visible={}", b[0], b[1], b[2], b[3], visible);
+                    if (visible) {
+                        log.info("Element in safe viewport after {} scrolls", attempt);
+                        return inner;
+                    }
+                    offset = SCROLL_PLANNER.offsetToSafeCenter(b[1], b[3], screenHeight);
+                } else {
+                    log.debug("Element bounds empty or null; scrolling one page.");
+                    offset = SCROLL_PLANNER.safeHeight(screenHeight);
                 }
 
-                // short wait for UI stabilization — prefer explicit wait for element presence after swipe
-                smallWait();
+                scrollBy(offset, screenWidth, screenHeight);
+                // return as soon as the list stops moving: poll the target's rect, not the whole page
+                if (inner == null || !settleElement(inner)) settleScroll();
             }
-            log.warn("Reached max scroll attempts; element might not be visible.");
+            log.warn("Element still outside the safe viewport after {} corrections.", MAX_SCROLL_CORRECTIONS);
+        } catch (CommandTimeoutException e) {
+            log.warn("scrollElementIntoViewSafe: {}. Repairing driver.", e.getMessage());
+            recover(gen, e);
         } catch (Exception e) {
             log.error("scrollElementIntoViewSafe failed: {}", e.getMessage(), e);
+        } finally {
+            Metrics.record("scrollElementIntoViewSafe", t0);
+        }
+        return null;
+    }
+
+    /**
+     * Moves list content by {@code offset} px (positive = content moves up) with as few gestures as possible:
+     * {@code mobile: scrollGesture} over the safe viewport, or a drag that holds before releasing (no fling)
+     * when the gesture command is not available.
+     */
+    private void scrollBy(int offset, int screenWidth, int screenHeight) {
+        int area = SCROLL_PLANNER.safeHeight(screenHeight);
+        String direction = offset > 0 ? "down" : "up";
+        int remaining = Math.abs(offset);
+        while (remaining > 0) {
+            int step = Math.min(remaining, area);
+            remaining -= step;
+            if (scrollGestureSupported) {
+                try {
+                    getDriver().executeScript("mobile: scrollGesture", Map.of(
+                            "left", 0, "top", TOP_SAFE_ZONE, "width", screenWidth, "height", area,
+                            "direction", direction, "percent", (double) step / area, "speed", SCROLL_SPEED));
+                    continue;
+                } catch (UnsupportedCommandException | InvalidArgumentException | JavascriptException e) {
+                    log.info("mobile: scrollGesture unavailable ({}); using drag gestures", e.getMessage());
+                    scrollGestureSupported = false;
+                }
+            }
+            drag(screenWidth / 2, TOP_SAFE_ZONE + area / 2, offset > 0 ? -step : step);
+        }
+        elements.screenChanged();
+    }
+
+    /** Vertical drag of {@code dy} px from (x, y) with a short hold before release so the list does not fling. */
+    private void drag(int x, int y, int dy) {
+        int startY = y - dy / 2;
+        int endY = y + dy / 2;
+        final var finger = new PointerInput(PointerInput.Kind.TOUCH, "finger");
+        var swipe = new Sequence(finger, 1);
+        swipe.addAction(finger.createPointerMove(Duration.ZERO, PointerInput.Origin.viewport(), x, startY));
+        swipe.addAction(finger.createPointerDown(PointerInput.MouseButton.LEFT.asArg()));
+        swipe.addAction(finger.createPointerMove(Duration.ofMillis(300), PointerInput.Origin.viewport(), x, endY));
+        swipe.addAction(finger.createPointerMove(Duration.ofMillis(150), PointerInput.Origin.viewport(), x, endY));
+        swipe.addAction(finger.createPointerUp(PointerInput.MouseButton.LEFT.asArg()));
+
+        // perform swipe with retry on session issues
+        long gen = holder.generation();
+        try {
+            performSafe(swipe);
+        } catch (Exception e) {
+            log.warn("Swipe attempt failed: {}", e.getMessage());
+            recover(gen, e);
+            performSafe(swipe);
+        }
+    }
+
+    /**
+     * Snapshot variant of {@link #scrollElementIntoViewSafe}: checks the node's bounds locally and performs
+     * at most one planned scroll. Returns true when the node is already inside the safe viewport; callers
+     * re-snapshot and re-resolve the node after a scroll.
+     */
+    public boolean scrollNodeIntoViewSafe(UiSnapshot snapshot, int node) {
+        long t0 = Metrics.start();
+        try {
+            Dimension screenSize = getWindowSize();
+            int screenHeight = screenSize.getHeight();
+            SCROLL_PLANNER.observe(snapshot.top(node), snapshot.bottom(node), screenHeight);
+            if (SCROLL_PLANNER.isInSafeViewport(snapshot.left(node), snapshot.top(node), snapshot.right(node),
+                    snapshot.bottom(node), screenSize.getWidth(), screenHeight)) {
+                return true;
+            }
+            scrollBy(SCROLL_PLANNER.offsetToSafeCenter(snapshot.top(node), snapshot.bottom(node), screenHeight),
+                    screenSize.getWidth(), screenHeight);
+            settleScroll();
+            return false;
+        } finally {
+            Metrics.record("scrollNodeIntoViewSafe", t0);
+        }
+    }
+
+    /**
+     * Moves the list forward by one safe viewport (content moves up) and waits for it to settle.
+     *
+     * @return the settled screen, so the caller needs no second page source
+     */
+    public UiSnapshot scrollPage() {
+        long t0 = Metrics.start();
+        try {
+            Dimension screenSize = getWindowSize();
+            scrollBy(SCROLL_PLANNER.safeHeight(screenSize.getHeight()), screenSize.getWidth(), screenSize.getHeight());
+            UiSnapshot settled = settleScroll();
+            return settled != null ? settled : snapshot();
+        } finally {
+            Metrics.record("scrollPage", t0);
+        }
+    }
+
+    /**
+     * Lets UiScrollable scroll the first scrollable container until an element with exactly this text is
+     * in view — one device call, works for rows not yet in the hierarchy.
+     *
+     * @return false when no scrollable container exists or the text was not found
+     */
+    public boolean scrollTextIntoView(String text) {
+        long t0 = Metrics.start();
+        try {
+            getDriver().findElement(AppiumBy.androidUIAutomator("new UiScrollable(new UiSelector().scrollable(true))"
+                    + ".scrollIntoView(new UiSelector().text(" + Locator.uiLiteral(text) + "))"));
+            return true;
+        } catch (org.openqa.selenium.NoSuchElementException | InvalidSelectorException e) {
+            log.debug("UiScrollable could not bring '{}' into view: {}", text, e.getMessage());
+            return false;
+        } finally {
+            elements.screenChanged();
+            Metrics.record("scrollTextIntoView", t0);
+        }
+    }
+
+    /**
+     * Fetch the page source once and parse it into a local {@link UiSnapshot}.
+     */
+    public UiSnapshot snapshot() {
+        long t0 = Metrics.start();
+        long gen = holder.generation();
+        try {
+            return UiSnapshot.parse(getDriver().getPageSource());
+        } catch (WebDriverException e) {
+            log.warn("getPageSource raised WebDriverException: {} — attempting repair", e.getMessage());
+            return UiSnapshot.parse(recover(gen, e).getPageSource());
+        } finally {
+            Metrics.record("snapshot", t0);
+        }
+    }
+
+    /**
+     * Single tap at screen coordinates (used with snapshot-resolved bounds).
+     */
+    public void tap(int x, int y) {
+        long t0 = Metrics.start();
+        try {
+            log.debug("tap -> ({},{})", x, y);
+            final var finger = new PointerInput(PointerInput.Kind.TOUCH, "finger");
+            var tap = new Sequence(finger, 1);
+            tap.addAction(finger.createPointerMove(Duration.ZERO, PointerInput.Origin.viewport(), x, y));
+            tap.addAction(finger.createPointerDown(PointerInput.MouseButton.LEFT.asArg()));
+            tap.addAction(finger.createPointerUp(PointerInput.MouseButton.LEFT.asArg()));
+            performSafe(tap);
+        } finally {
+            Metrics.record("tap", t0);
         }
     }
 
     private void smallWait() {
+        long t0 = Metrics.start();
         try {
             Thread.sleep(700); // small, predictable pause for UI to settle (use sparingly)
         } catch (InterruptedException ignored) {
             Thread.currentThread().interrupt();
+        } finally {
+            Metrics.record("sleep.retry", t0);
         }
     }
 
+    /** Window size, fetched once per run (it does not change with the session). */
     public Dimension getWindowSize() {
+        Dimension cached = windowSize;
+        if (cached != null) return cached;
+        long gen = holder.generation();
         try {
-            return driver.manage().window().getSize();
+            cached = getDriver().manage().window().getSize();
         } catch (WebDriverException e) {
             log.warn("getWindowSize raised WebDriverException: {} — attempting repair", e.getMessage());
-            driver = repairDriverSafely(e);
-            return driver.manage().window().getSize();
+            cached = recover(gen, e).manage().window().getSize();
         }
+        windowSize = cached;
+        return cached;
     }
 
     private static UiAutomator2Options getUiAutomator2Options() {
         UiAutomator2Options options = new UiAutomator2Options();
         options.setPlatformName("Android");
         options.setAutomationName("UiAutomator2");
-        options.setAppPackage("com.snapchat.android");
+        options.setAppPackage(APP_PACKAGE);
         options.setAppActivity("com.snap.mushroom.MainActivity");
         options.setCapability("appium:autoGrantPermissions", true);
         options.setCapability("appium:ignoreHiddenApiPolicyError", true);
@@ -173,43 +349,93 @@ public class Utils {
 
     public static AndroidDriver createDriver() throws MalformedURLException {
         log.info("Creating new AndroidDriver session");
-        URI uri = URI.create("http://127.0.0.1:4723/"); // no checked exception
-        URL url = uri.toURL(); // may throw MalformedURLException (method already declares it)
-        return new AndroidDriver(url, getUiAutomator2Options());
+        return new AndroidDriver(new DeadlineCommandExecutor(appiumUrl()), getUiAutomator2Options());
     }
 
     public static AndroidDriver repairDriver() throws MalformedURLException {
         log.info("Repairing AndroidDriver by creating a fresh session");
-        URI uri = URI.create("http://127.0.0.1:4723/"); // no checked exception
-        URL url = uri.toURL(); // may throw MalformedURLException (method already declares it)
-        return new AndroidDriver(url, getRepairUiAutomator2Options());
+        return new AndroidDriver(new DeadlineCommandExecutor(appiumUrl()), getRepairUiAutomator2Options());
     }
 
     /**
-     * Thread-safe driver repair wrapper. Attempts to re-create driver if it's null or session invalid.
-     * Limits number of retries to avoid flapping.
+     * Session for a new run. With {@code session.reuse.enable} the session the previous run left open is
+     * reattached when it still answers (no UiAutomator2 server launch, no app relaunch); only otherwise is a
+     * new one created with {@link #createDriver()}. Either way the session is saved for the next run.
      */
-    public static synchronized AndroidDriver repairDriverSafely(Exception e) {
-        log.warn("⚠️ Driver session broken or threw: {}", e.toString());
-        int attempts = 0;
-        while (attempts < DRIVER_REPAIR_MAX_RETRIES) {
-            attempts++;
-            try {
-                AndroidDriver newDriver = repairDriver();
-                log.info("🔄 Driver repaired successfully on attempt {}", attempts);
-                return newDriver;
-            } catch (MalformedURLException ex) {
-                throw new RuntimeException("Failed to repair driver due to MalformedURLException", ex);
-            } catch (WebDriverException ex) {
-                log.error("Attempt {} to repair driver failed: {}", attempts, ex.getMessage());
-                try {
-                    Thread.sleep(1000);
-                } catch (InterruptedException interrupted) {
-                    Thread.currentThread().interrupt();
-                }
-            }
+    public static AndroidDriver startDriver() throws MalformedURLException {
+        if (!ConfigManager.getBoolean("session.reuse.enable")) return createDriver();
+        long t0 = Metrics.start();
+        try {
+            SessionStore store = SessionStore.fromConfig();
+            URL server = appiumUrl();
+            AndroidDriver driver = attach(store, server);
+            if (driver == null) driver = createDriver();
+            store.save(server.toString(), driver);
+            return driver;
+        } finally {
+            Metrics.record("session.start", t0);
         }
-        throw new RuntimeException("Could not repair driver after retries; check Appium server and device state.");
+    }
+
+    /**
+     * Leaves {@code driver} running and saved, for {@link #startDriver()} of the next run to reattach.
+     */
+    public static void keepSession(AndroidDriver driver) {
+        if (driver == null) return;
+        try {
+            SessionStore.fromConfig().save(appiumUrl().toString(), driver);
+            log.info("Leaving session {} open for the next run", driver.getSessionId());
+        } catch (MalformedURLException e) {
+            log.warn("Could not save session {}: {}", driver.getSessionId(), e.getMessage());
+        }
+    }
+
+    /** The saved session when it belongs to {@code server} and still answers; null otherwise. */
+    private static AndroidDriver attach(SessionStore store, URL server) throws MalformedURLException {
+        SessionStore.Saved saved = store.load();
+        if (saved == null) return null;
+        if (!saved.serverUrl().equals(server.toString())) {
+            log.info("Saved session {} belongs to {}, not {}; creating a new one", saved.sessionId(), saved.serverUrl(), server);
+            return null;
+        }
+        String base = server.toString();
+        URL sessionAddress = URI.create(base + (base.endsWith("/") ? "" : "/") + "session/" + saved.sessionId()).toURL();
+        try {
+            AndroidDriver driver = new AttachedDriver(sessionAddress, saved.automationName(), server);
+            driver.getOrientation(); // any session command proves it is alive
+            if (!APP_PACKAGE.equals(driver.getCurrentPackage())) driver.activateApp(APP_PACKAGE);
+            log.info("Reattached to session {} (saved {} s ago)", saved.sessionId(),
+                    (System.currentTimeMillis() - saved.savedAt()) / 1000);
+            Metrics.increment("session.reattached");
+            return driver;
+        } catch (WebDriverException e) {
+            log.info("Saved session {} is no longer usable ({}); creating a new one", saved.sessionId(), e.getMessage());
+            store.clear();
+            return null;
+        }
+    }
+
+    /**
+     * Driver bound to an existing session. The session-address constructor sends commands through a plain
+     * executor that only knows the W3C commands; this swaps in a {@link DeadlineCommandExecutor} with the
+     * Appium commands registered, so a reattached session behaves (and has deadlines) like a created one.
+     */
+    private static final class AttachedDriver extends AndroidDriver {
+        AttachedDriver(URL sessionAddress, String automationName, URL server) {
+            super(sessionAddress, automationName);
+            DeadlineCommandExecutor executor = new DeadlineCommandExecutor(server);
+            executor.setCommandCodec(new AppiumW3CHttpCommandCodec());
+            executor.setResponseCodec(new W3CHttpResponseCodec());
+            executor.refreshAdditionalCommands(); // normally done on session creation; orientation, keys etc. need it
+            setCommandExecutor(executor);
+        }
+    }
+
+    /** Appium server from {@code appium.url} (default the local server on 4723). */
+    private static URL appiumUrl() throws MalformedURLException {
+        String configured = ConfigManager.get("appium.url");
+        URI uri = URI.create(configured.isEmpty() ? DEFAULT_APPIUM_URL : configured); // no checked exception
+        return uri.toURL(); // may throw MalformedURLException (method already declares it)
     }
 
     /**
@@ -218,15 +444,17 @@ public class Utils {
     private void performSafe(Sequence... sequences) {
         int tries = 0;
         while (true) {
+            long gen = holder.generation();
             try {
-                driver.perform(List.of(sequences));
+                getDriver().perform(List.of(sequences));
+                elements.screenChanged();
                 return;
             } catch (WebDriverException e) {
                 tries++;
                 log.debug("perform() raised WebDriverException (try {}): {}", tries, e.getMessage());
                 // if it's a session-related exception, try repair once
                 if (tries == 1) {
-                    driver = repairDriverSafely(e);
+                    recover(gen, e);
                     continue;
                 }
                 throw e;
@@ -235,90 +463,370 @@ public class Utils {
     }
 
     public void clickElement(By by) {
-        log.debug("clickElement -> {}", by);
-        for (int attempt = 1; attempt <= 3; attempt++) {
-            try {
-                waitUntilElementVisible(by, DEFAULT_WAIT);
-                driver.findElement(by).click();
-                return;
-            } catch (ElementClickInterceptedException | StaleElementReferenceException ex) {
-                log.warn("Attempt {} click intercepted/stale: {}. Retrying...", attempt, ex.getMessage());
-                smallWait();
-            } catch (WebDriverException e) {
-                log.error("WebDriverException on clickElement: {}. Attempting repair.", e.getMessage());
-                driver = repairDriverSafely(e);
+        long t0 = Metrics.start();
+        try {
+            log.debug("clickElement -> {}", by);
+            for (int attempt = 1; attempt <= 3; attempt++) {
+                long gen = holder.generation();
+                boolean cached = elements.contains(by);
+                try {
+                    // click the element the wait found: one lookup, one click
+                    WebElement el = waitForElement(by, DEFAULT_WAIT);
+                    (el != null ? el : getDriver().findElement(by)).click();
+                    elements.screenChanged();
+                    return;
+                } catch (InvalidElementStateException | StaleElementReferenceException ex) {
+                    elements.evict(by);
+                    if (cached && ex instanceof StaleElementReferenceException) {
+                        log.debug("Cached handle for {} went stale; looking it up again", by);
+                        continue;
+                    }
+                    // intercepted, not yet interactable (still animating in) or replaced since the lookup
+                    log.warn("Attempt {} click intercepted/stale: {}. Retrying...", attempt, ex.getMessage());
+                    smallWait();
+                } catch (WebDriverException e) {
+                    log.error("WebDriverException on clickElement: {}. Attempting repair.", e.getMessage());
+                    recover(gen, e);
+                }
             }
+            throw new RuntimeException("clickElement failed after retries: " + by.toString());
+        } finally {
+            Metrics.record("clickElement", t0);
         }
-        throw new RuntimeException("clickElement failed after retries: " + by.toString());
     }
 
     public void setText(By by, String text) {
-        log.debug("setText -> {} = {}", by, text);
-        for (int attempt = 1; attempt <= 3; attempt++) {
-            try {
-                waitUntilElementVisible(by, DEFAULT_WAIT);
-                WebElement el = driver.findElement(by);
-                el.clear();
-                el.sendKeys(text);
-                return;
-            } catch (InvalidElementStateException | StaleElementReferenceException ex) {
-                log.warn("Attempt {} setText failed: {}. Retrying...", attempt, ex.getMessage());
-                smallWait();
-            } catch (WebDriverException e) {
-                log.error("WebDriverException on setText: {}. Attempting repair.", e.getMessage());
-                driver = repairDriverSafely(e);
+        long t0 = Metrics.start();
+        try {
+            log.debug("setText -> {} = {}", by, text);
+            for (int attempt = 1; attempt <= 3; attempt++) {
+                long gen = holder.generation();
+                boolean cached = elements.contains(by);
+                try {
+                    // UiAutomator2 element value replaces the field's text, so no separate clear()
+                    WebElement el = waitForElement(by, DEFAULT_WAIT);
+                    (el != null ? el : getDriver().findElement(by)).sendKeys(text);
+                    elements.screenChanged();
+                    return;
+                } catch (InvalidElementStateException | StaleElementReferenceException ex) {
+                    elements.evict(by);
+                    if (cached && ex instanceof StaleElementReferenceException) {
+                        log.debug("Cached handle for {} went stale; looking it up again", by);
+                        continue;
+                    }
+                    log.warn("Attempt {} setText failed: {}. Retrying...", attempt, ex.getMessage());
+                    smallWait();
+                } catch (WebDriverException e) {
+                    log.error("WebDriverException on setText: {}. Attempting repair.", e.getMessage());
+                    recover(gen, e);
+                }
             }
+            throw new RuntimeException("setText failed after retries: " + by.toString());
+        } finally {
+            Metrics.record("setText", t0);
+        }
+    }
+
+    /**
+     * Sends {@code messages} in order through the chat input {@code input}, as fast as the app accepts them.
+     * <p>
+     * The input is looked up once and its handle reused for every message (looked up again only if it goes
+     * stale). With {@code typeFastPath} the text goes through {@code mobile: type} into the focused field;
+     * when the server does not support that command, this and later messages use the element value instead.
+     * Each message is sent with ENTER, and delivery is confirmed by the input letting go of the text rather
+     * than by a fixed wait. One final page source checks that the messages show in the conversation.
+     *
+     * @return how many messages were confirmed in the conversation
+     */
+    public int sendMessages(By input, List<String> messages, boolean typeFastPath) {
+        long t0 = Metrics.start();
+        long gen = holder.generation();
+        try {
+            WebElement field = waitForElement(input, DEFAULT_WAIT);
+            if (field == null) field = getDriver().findElement(input);
+            boolean type = typeFastPath;
+            if (type) field.click(); // mobile: type writes into the focused view
+            for (String msg : messages) {
+                for (int attempt = 1; ; attempt++) {
+                    try {
+                        type = type && typeInto(msg);
+                        if (!type) field.sendKeys(msg);
+                        break;
+                    } catch (StaleElementReferenceException e) {
+                        if (attempt == 2) throw e;
+                        elements.evict(input);
+                        field = getDriver().findElement(input);
+                        if (type) field.click();
+                    }
+                }
+                getDriver().pressKey(new KeyEvent(AndroidKey.ENTER));
+                WebElement sentFrom = field;
+                if (!UiWait.until("sendMessage", () -> !draftHolds(sentFrom, msg))) {
+                    log.warn("Message still in the input after ENTER: {}", msg);
+                }
+            }
+            return confirmDelivered(messages);
+        } catch (CommandTimeoutException e) {
+            log.warn("sendMessages: {}. Repairing driver.", e.getMessage());
+            recover(gen, e);
+            return 0;
+        } finally {
+            elements.screenChanged();
+            Metrics.record("sendMessages", t0);
+        }
+    }
+
+    /** {@code mobile: type} into the focused view; false when the server lacks the command (nothing typed). */
+    private boolean typeInto(String text) {
+        try {
+            getDriver().executeScript("mobile: type", Map.of("text", text));
+            return true;
+        } catch (UnsupportedCommandException | InvalidArgumentException e) {
+            log.info("mobile: type not available ({}); using the element value", e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean draftHolds(WebElement field, String msg) {
+        try {
+            return field.getText().contains(msg);
+        } catch (CommandTimeoutException e) {
+            throw e;
+        } catch (StaleElementReferenceException e) {
+            return false; // the input was re-rendered after sending
+        } catch (WebDriverException e) {
+            return true;
+        }
+    }
+
+    /** Counts the messages shown as text outside an input in the current conversation. */
+    private int confirmDelivered(List<String> messages) {
+        UiSnapshot ui = snapshot();
+        int confirmed = 0;
+        for (String msg : messages) {
+            int[] shown = ui.findAll(n -> msg.equals(ui.text(n)) && !ui.className(n).equals("android.widget.EditText"));
+            if (shown.length > 0) confirmed++;
+            else log.warn("Sent message not visible in the conversation: {}", msg);
+        }
+        return confirmed;
+    }
+
+    /**
+     * Clicks {@code by} if it is on screen right now (no waiting): one lookup and, when found, one click —
+     * instead of {@code isDisplayed} followed by {@code clickElement}.
+     *
+     * @return true when the element was found and clicked
+     */
+    public boolean clickIfPresent(By by) {
+        long t0 = Metrics.start();
+        long gen = holder.generation();
+        try {
+            List<WebElement> cached = elements.get(by, gen);
+            if (cached != null) {
+                try {
+                    cached.get(0).click();
+                    elements.screenChanged();
+                    return true;
+                } catch (StaleElementReferenceException e) {
+                    log.debug("Cached handle for {} went stale; looking it up again", by);
+                    elements.evict(by);
+                }
+            }
+            List<WebElement> els = getDriver().findElements(by);
+            if (els.isEmpty()) return false;
+            els.get(0).click();
+            elements.screenChanged();
+            return true;
+        } catch (InvalidElementStateException | StaleElementReferenceException e) {
+            elements.evict(by);
+            log.debug("clickIfPresent could not click {}: {}", by, e.getMessage());
+            return false;
+        } catch (WebDriverException e) {
+            log.warn("clickIfPresent failed: {}. Repairing driver.", e.getMessage());
+            recover(gen, e);
+            return false;
+        } finally {
+            Metrics.record("clickIfPresent", t0);
         }
-        throw new RuntimeException("setText failed after retries: " + by.toString());
     }
 
     public void hideKeyBoard() {
+        long t0 = Metrics.start();
+        long gen = holder.generation();
         try {
-            driver.hideKeyboard();
+            getDriver().hideKeyboard();
+            elements.screenChanged(); // the layout grows back into the keyboard's space
         } catch (WebDriverException e) {
-            log.warn("hideKeyboard failed: {}. Trying repair.", e.getMessage());
-            driver = repairDriverSafely(e);
-            driver.hideKeyboard();
+            log.debug("hideKeyboard failed: {}", e.getMessage());
+            // no keyboard shown is the usual cause and needs nothing; only a new session deserves another try
+            AndroidDriver recovered = recover(gen, e);
+            if (holder.generation() != gen) recovered.hideKeyboard();
+        } finally {
+            Metrics.record("hideKeyBoard", t0);
         }
     }
 
     public void navigateBack() {
+        long t0 = Metrics.start();
+        long gen = holder.generation();
         try {
-            driver.navigate().back();
+            getDriver().navigate().back();
         } catch (WebDriverException e) {
             log.warn("navigateBack failed: {}. Repairing driver.", e.getMessage());
-            driver = repairDriverSafely(e);
-            driver.navigate().back();
+            recover(gen, e).navigate().back();
+        } finally {
+            elements.screenChanged();
+            Metrics.record("navigateBack", t0);
         }
     }
 
     public void pressEnter() {
+        long t0 = Metrics.start();
+        long gen = holder.generation();
         try {
-            driver.pressKey(new KeyEvent(AndroidKey.ENTER));
+            getDriver().pressKey(new KeyEvent(AndroidKey.ENTER));
         } catch (WebDriverException e) {
             log.warn("pressEnter failed: {}. Repairing driver.", e.getMessage());
-            driver = repairDriverSafely(e);
-            driver.pressKey(new KeyEvent(AndroidKey.ENTER));
+            recover(gen, e).pressKey(new KeyEvent(AndroidKey.ENTER));
+        } finally {
+            elements.screenChanged();
+            Metrics.record("pressEnter", t0);
         }
     }
 
     public void waitForSeconds(int n) {
+        long t0 = Metrics.start();
         try {
             Thread.sleep(n * 1000L);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
+        } finally {
+            Metrics.record("sleep", t0);
+        }
+    }
+
+    /**
+     * Returns once the UI is stable after {@code action} (see {@link UiWait}); replaces fixed sleeps.
+     *
+     * @return the settled screen, or null when the session had to be repaired
+     */
+    public UiSnapshot waitForUiStable(String action) {
+        return waitForUiStable(action, false);
+    }
+
+    /** Settle after a scroll: only the scrolling container has to stop changing. */
+    private UiSnapshot settleScroll() {
+        return waitForUiStable("scroll", true);
+    }
+
+    /**
+     * Page sources are parsed and compared by layout ({@link UiSnapshot#layoutHash}), limited to the first
+     * scrollable container when {@code listOnly} and one exists, so focus changes or a ticking clock elsewhere
+     * do not keep the wait going.
+     */
+    private UiSnapshot waitForUiStable(String action, boolean listOnly) {
+        long t0 = Metrics.start();
+        long gen = holder.generation();
+        try {
+            AndroidDriver driver = getDriver();
+            return UiWait.settle(action, () -> UiSnapshot.parse(driver.getPageSource()),
+                    ui -> ui.layoutHash(listOnly ? ui.findFirstIn(-1, ui::isScrollable) : -1));
+        } catch (CommandTimeoutException e) {
+            log.warn("waitForUiStable: {}. Repairing driver.", e.getMessage());
+            recover(gen, e);
+            return null;
+        } finally {
+            elements.screenChanged(); // the screen was still moving when this was called
+            Metrics.record("waitForUiStable", t0);
+        }
+    }
+
+    /** Carries a stale scroll target out of {@link UiWait#settle}, which treats driver errors as "still moving". */
+    private static final class StaleTarget extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        StaleTarget(StaleElementReferenceException cause) {
+            super(cause);
+        }
+    }
+
+    /**
+     * Settle after a scroll by polling the rect of the element being scrolled, one small command per poll.
+     *
+     * @return false when the element went stale (recycled by the list), so the caller settles another way
+     */
+    private boolean settleElement(WebElement target) {
+        long t0 = Metrics.start();
+        try {
+            UiWait.settle("scroll", () -> {
+                try {
+                    return target.getRect();
+                } catch (StaleElementReferenceException e) {
+                    throw new StaleTarget(e);
+                }
+            }, rect -> rect);
+            return true;
+        } catch (StaleTarget e) {
+            log.debug("Scroll target went stale; settling on the list instead");
+            return false;
+        } finally {
+            elements.screenChanged();
+            Metrics.record("settleElement", t0);
+        }
+    }
+
+    /**
+     * Returns once {@code expected} is present after {@code action}, bounded by the learned latency. The
+     * handles found are cached, so acting on {@code expected} next costs no second lookup.
+     */
+    public boolean waitForUi(String action, By expected) {
+        long t0 = Metrics.start();
+        long gen = holder.generation();
+        try {
+            if (elements.get(expected, gen) != null) return true;
+            AndroidDriver driver = getDriver();
+            long screen = elements.screen();
+            return UiWait.until(action, () -> {
+                try {
+                    List<WebElement> found = driver.findElements(expected);
+                    elements.put(expected, found, gen, screen);
+                    return !found.isEmpty();
+                } catch (CommandTimeoutException e) {
+                    throw e; // a wedged session will not recover by polling it
+                } catch (WebDriverException e) {
+                    log.debug("waitForUi('{}') lookup failed: {}", action, e.getMessage());
+                    return false;
+                }
+            });
+        } catch (CommandTimeoutException e) {
+            log.warn("waitForUi: {}. Repairing driver.", e.getMessage());
+            recover(gen, e);
+            return false;
+        } finally {
+            Metrics.record("waitForUi", t0);
         }
     }
 
     public List<WebElement> findElements(By by) {
+        return findElements(by, DEFAULT_WAIT);
+    }
+
+    /**
+     * Elements matching {@code by}, waiting up to {@code timeout} for the first one; the list from the
+     * successful poll is returned as is (no second lookup). Empty when nothing appeared in time. A lookup
+     * already made on this screen is answered from the {@link ElementCache}.
+     */
+    public List<WebElement> findElements(By by, Duration timeout) {
+        long t0 = Metrics.start();
+        long gen = holder.generation();
         try {
-            waitUntilElementsPresent(by);
-            return driver.findElements(by);
+            return lookup(by, timeout);
         } catch (WebDriverException e) {
             log.warn("findElements web driver exception: {}. Repairing.", e.getMessage());
-            driver = repairDriverSafely(e);
-            waitUntilElementsPresent(by);
-            return driver.findElements(by);
+            recover(gen, e);
+            return lookup(by, timeout);
+        } finally {
+            Metrics.record("findElements", t0);
         }
     }
 
@@ -326,10 +834,56 @@ public class Utils {
 
 
     public Boolean isDisplayed(By by) {
+        long t0 = Metrics.start();
+        long gen = holder.generation();
         try {
-            return driver.findElement(by).isDisplayed();
+            List<WebElement> cached = elements.get(by, gen);
+            if (cached != null) {
+                try {
+                    return cached.get(0).isDisplayed();
+                } catch (StaleElementReferenceException e) {
+                    elements.evict(by);
+                }
+            }
+            return getDriver().findElement(by).isDisplayed();
+        } catch (CommandTimeoutException e) {
+            log.warn("isDisplayed: {}. Repairing driver.", e.getMessage());
+            recover(gen, e);
+            return false;
         } catch (Exception e) {
             return false;
+        } finally {
+            Metrics.record("isDisplayed", t0);
+        }
+    }
+
+    /**
+     * Which of {@code locators} are on screen and visible right now, from one page source instead of one
+     * {@code findElement} per locator (and no implicit wait for the missing ones). Locators that cannot be
+     * evaluated on a snapshot fall back to {@link #isDisplayed}.
+     *
+     * @return the present locators (empty when none are)
+     */
+    public Set<By> probe(By... locators) {
+        long t0 = Metrics.start();
+        try {
+            UiSnapshot ui = snapshot();
+            Set<By> present = new HashSet<>();
+            for (By by : locators) {
+                if (by instanceof Locator locator && locator.supportsSnapshot()) {
+                    for (int node : locator.findIn(ui, -1)) {
+                        if (ui.isDisplayed(node) && ui.right(node) > ui.left(node) && ui.bottom(node) > ui.top(node)) {
+                            present.add(by);
+                            break;
+                        }
+                    }
+                } else if (isDisplayed(by)) {
+                    present.add(by);
+                }
+            }
+            return present;
+        } finally {
+            Metrics.record("probe", t0);
         }
     }
 
@@ -337,9 +891,20 @@ public class Utils {
      * Wait until element disappears (invisible or removed from DOM)
      */
     public void waitUntilElementDisappears(By locator, int timeoutInSeconds) {
+        waitUntilGone(locator, Duration.ofSeconds(timeoutInSeconds));
+    }
+
+    /**
+     * Like {@link #waitUntilElementDisappears}, returning as soon as {@code locator} is gone.
+     *
+     * @return false when it was still shown after {@code timeout} (or the session had to be repaired)
+     */
+    public boolean waitUntilGone(By locator, Duration timeout) {
+        long t0 = Metrics.start();
+        long gen = holder.generation();
         try {
-            Wait<AndroidDriver> wait = new FluentWait<>(driver)
-                    .withTimeout(Duration.ofSeconds(timeoutInSeconds))
+            Wait<AndroidDriver> wait = new FluentWait<>(getDriver())
+                    .withTimeout(timeout)
                     .pollingEvery(ACTION_RETRY_INTERVAL)
                     .ignoring(NoSuchElementException.class);
 
@@ -347,40 +912,89 @@ public class Utils {
                 try {
                     List<WebElement> els = d.findElements(locator);
                     return els.isEmpty() || els.stream().noneMatch(WebElement::isDisplayed);
+                } catch (CommandTimeoutException ex) {
+                    throw ex;
                 } catch (Exception ex) {
                     return true;
                 }
             });
+            elements.evict(locator);
+            return true;
         } catch (TimeoutException e) {
             log.warn("waitUntilElementDisappears timed out for {}: {}", locator, e.getMessage());
+            return false;
+        } catch (CommandTimeoutException e) {
+            log.warn("waitUntilElementDisappears: {}. Repairing driver.", e.getMessage());
+            recover(gen, e);
+            return false;
+        } finally {
+            Metrics.record("waitUntilElementDisappears", t0);
         }
     }
 
-    public void waitUntilElementsPresent(By locator) {
+    public List<WebElement> waitUntilElementsPresent(By locator) {
+        return waitUntilElementsPresent(locator, DEFAULT_WAIT);
+    }
+
+    /** Waits for at least one match and returns the matches of that poll; empty on timeout. */
+    public List<WebElement> waitUntilElementsPresent(By locator, Duration timeout) {
+        long t0 = Metrics.start();
         try {
-            Wait<AndroidDriver> wait = new FluentWait<>(driver)
-                    .withTimeout(DEFAULT_WAIT)
+            Wait<AndroidDriver> wait = new FluentWait<>(getDriver())
+                    .withTimeout(timeout)
                     .pollingEvery(ACTION_RETRY_INTERVAL)
                     .ignoring(NoSuchElementException.class);
 
-            wait.until(d -> !d.findElements(locator).isEmpty());
+            return wait.until(d -> {
+                List<WebElement> els = d.findElements(locator);
+                return els.isEmpty() ? null : els;
+            });
         } catch (TimeoutException e) {
-            log.warn("waitUntilElementsPresent timed out for {}: {}", locator, e.getMessage());
+            if (!timeout.isZero()) log.warn("waitUntilElementsPresent timed out for {}: {}", locator, e.getMessage());
+            return List.of();
+        } finally {
+            Metrics.record("waitUntilElementsPresent", t0);
         }
     }
 
-    public void waitUntilElementVisible(By locator, Duration timeout) {
+    /** Waits until {@code locator} is visible and returns that element (null on timeout). */
+    public WebElement waitUntilElementVisible(By locator, Duration timeout) {
+        long t0 = Metrics.start();
         try {
-            FluentWait<AndroidDriver> wait = new FluentWait<>(driver)
+            FluentWait<AndroidDriver> wait = new FluentWait<>(getDriver())
                     .withTimeout(timeout)
                     .pollingEvery(ACTION_RETRY_INTERVAL).ignoring(NoSuchElementException.class,StaleElementReferenceException.class);
 
-            wait.until(ExpectedConditions.visibilityOfElementLocated(locator));
+            return wait.until(ExpectedConditions.visibilityOfElementLocated(locator));
         } catch (TimeoutException e) {
             log.debug("waitUntilElementVisible timed out for {} after {}: {}",
                     locator, timeout.toSeconds(), e.getMessage());
+            return null;
+        } finally {
+            Metrics.record("waitUntilElementVisible", t0);
         }
     }
 
+    /**
+     * Waits until {@code locator} is in the hierarchy and returns the first match — one lookup per poll.
+     * Presence is enough for the views this bot acts on (they are only in the accessibility hierarchy while
+     * on screen) and saves the per-poll displayed check; a view not yet interactable fails the action and is retried.
+     */
+    private WebElement waitForElement(By locator, Duration timeout) {
+        List<WebElement> els = lookup(locator, timeout);
+        return els.isEmpty() ? null : els.get(0);
+    }
+
+    /** Handles for {@code locator}: cached when this screen already found them, otherwise waited for and cached. */
+    private List<WebElement> lookup(By locator, Duration timeout) {
+        long gen = holder.generation();
+        List<WebElement> cached = elements.get(locator, gen);
+        if (cached != null) return cached;
+        long screen = elements.screen();
+        List<WebElement> found = waitUntilElementsPresent(locator, timeout);
+        elements.put(locator, found, gen, screen);
+        return found;
+    }
+
 
 }
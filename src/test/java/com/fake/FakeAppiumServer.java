@@ -0,0 +1,547 @@
+package com.fake;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.utils.Locator;
+import com.utils.UiSnapshot;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntPredicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process stand-in for an Appium UiAutomator2 server, backed by a {@link FakeSnapApp}.
+ * <p>
+ * Speaks the W3C WebDriver subset the automation uses (sessions, page source, element lookup by xpath /
+ * id / accessibility id / class name / UiSelector, element attributes, click / clear / value, back,
+ * W3C actions, {@code mobile:} extensions), so {@code Snap} runs unchanged against
+ * {@code appium.url=http://127.0.0.1:<port>/}. Element references survive re-renders as long as the node
+ * does (same class, resource-id and text along its path) and turn stale otherwise, as on a device.
+ * Every command is delayed by the configured {@link Latency} and counted.
+ */
+public final class FakeAppiumServer implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(FakeAppiumServer.class);
+
+    private static final String ELEMENT_KEY = "element-6066-11e4-a52e-4f735466cecf";
+    private static final Json JSON = new Json();
+    private static final Pattern SELECTOR_CALL = Pattern.compile("\\.(\\w+)\\(\\s*(\"(?:[^\"\\\\]|\\\\.)*\"|-?\\d+|true|false)\\s*\\)");
+
+    /**
+     * Simulated device latency: every command waits {@code commandMillis}, page sources wait
+     * {@code sourceMillis} instead, plus a uniform {@code jitterMillis} drawn from a seeded random. With
+     * probability {@code spikeChance} a command also stalls for {@code spikeMillis} (a busy adb link).
+     */
+    public record Latency(long commandMillis, long sourceMillis, long jitterMillis, double spikeChance, long spikeMillis,
+                          long seed) {
+
+        /** Names accepted by {@link #profile}. */
+        public static final List<String> PROFILES = List.of("none", "phone", "emulator", "congested-adb");
+
+        public Latency(long commandMillis, long sourceMillis, long jitterMillis, long seed) {
+            this(commandMillis, sourceMillis, jitterMillis, 0, 0, seed);
+        }
+
+        public static Latency none() {
+            return new Latency(0, 0, 0, 0);
+        }
+
+        /**
+         * A named device: {@code phone} (fast physical phone over USB), {@code emulator} (slow emulator, page
+         * sources dominate), {@code congested-adb} (moderate latency with wide jitter and occasional 1.5 s
+         * stalls). Rough orders of magnitude, meant for comparing builds rather than predicting a device.
+         */
+        public static Latency profile(String name, long seed) {
+            return switch (name) {
+                case "none" -> none();
+                case "phone" -> new Latency(25, 90, 10, seed);
+                case "emulator" -> new Latency(70, 350, 40, seed);
+                case "congested-adb" -> new Latency(45, 180, 60, 0.03, 1500, seed);
+                default -> throw new IllegalArgumentException("Unknown latency profile " + name + "; known: " + PROFILES);
+            };
+        }
+    }
+
+    private final FakeSnapApp app;
+    private final Latency latency;
+    private final Random jitter;
+    private final HttpServer http;
+    private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+    private final Map<String, String> elementIdByKey = new ConcurrentHashMap<>();
+    private final Map<String, String> keyByElementId = new ConcurrentHashMap<>();
+    private final AtomicLong nextElementId = new AtomicLong();
+    private final Map<String, LongAdder> commandCounts = new ConcurrentHashMap<>();
+    private volatile Render render;
+
+    private FakeAppiumServer(FakeSnapApp app, Latency latency, int port) throws IOException {
+        this.app = app;
+        this.latency = latency;
+        this.jitter = new Random(latency.seed());
+        this.http = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        this.http.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.http.createContext("/", this::handle);
+    }
+
+    /** Start serving {@code app} on {@code port} (0 picks a free port). */
+    public static FakeAppiumServer start(FakeSnapApp app, Latency latency, int port) throws IOException {
+        FakeAppiumServer server = new FakeAppiumServer(app, latency, port);
+        server.http.start();
+        log.info("Fake Appium server for {} listening on {}", app, server.url());
+        return server;
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + http.getAddress().getPort() + "/";
+    }
+
+    public FakeSnapApp app() {
+        return app;
+    }
+
+    /** Commands served so far, keyed like {@code POST element} or {@code GET source}. */
+    public Map<String, Long> commandCounts() {
+        Map<String, Long> out = new LinkedHashMap<>();
+        commandCounts.forEach((k, v) -> out.put(k, v.sum()));
+        return out;
+    }
+
+    public long totalCommands() {
+        return commandCounts.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    @Override
+    public void close() {
+        http.stop(0);
+    }
+
+    // ---------------------------------------------------------------- HTTP plumbing
+
+    private record Reply(int status, Object value) { }
+
+    private static final class WebDriverError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+        final String error;
+
+        WebDriverError(int status, String error, String message) {
+            super(message);
+            this.status = status;
+            this.error = error;
+        }
+    }
+
+    private void handle(HttpExchange ex) throws IOException {
+        Reply reply;
+        try {
+            String method = ex.getRequestMethod();
+            String[] path = ex.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/");
+            String body = new String(ex.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            Map<String, Object> params = body.isBlank() ? Map.of() : JSON.toType(body, Json.MAP_TYPE);
+            reply = new Reply(200, dispatch(method, path, params));
+        } catch (WebDriverError e) {
+            reply = new Reply(e.status, Map.of("error", e.error, "message", e.getMessage(), "stacktrace", ""));
+        } catch (RuntimeException e) {
+            log.warn("Fake server failed on {} {}: {}", ex.getRequestMethod(), ex.getRequestURI(), e.toString());
+            reply = new Reply(500, Map.of("error", "unknown error", "message", String.valueOf(e.getMessage()), "stacktrace", ""));
+        }
+        Map<String, Object> envelope = new HashMap<>();
+        envelope.put("value", reply.value());
+        byte[] out = JSON.toJson(envelope).getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(reply.status(), out.length);
+        ex.getResponseBody().write(out);
+        ex.close();
+    }
+
+    private Object dispatch(String method, String[] path, Map<String, Object> params) {
+        if (path.length == 1 && path[0].equals("status")) return Map.of("ready", true, "message", "fake");
+        if (path.length == 0 || !path[0].equals("session")) throw unknownCommand(method, path);
+        if (path.length == 1 && method.equals("POST")) return newSession();
+        String sid = path[1];
+        if (!sessions.contains(sid)) throw new WebDriverError(404, "invalid session id", "No session " + sid);
+        String command = path.length == 2 ? "" : String.join("/", List.of(path).subList(2, path.length));
+        String counted = method + " " + (command.isEmpty() ? "session" : command.replaceAll("element/[^/]+", "element/:id"));
+        commandCounts.computeIfAbsent(counted, k -> new LongAdder()).increment();
+        delay(command.equals("source") ? latency.sourceMillis() : latency.commandMillis());
+
+        if (path.length == 2 && method.equals("DELETE")) {
+            sessions.remove(sid);
+            return null;
+        }
+        if (command.startsWith("element/") && path.length >= 5) {
+            return elementCommand(method, path[3], String.join("/", List.of(path).subList(4, path.length)), params);
+        }
+        return switch (method + " " + command) {
+            case "GET source" -> app.pageSource();
+            case "GET window/rect" -> Map.of("x", 0, "y", 0, "width", FakeSnapApp.SCREEN_WIDTH, "height", FakeSnapApp.SCREEN_HEIGHT);
+            case "GET window/size" -> Map.of("width", FakeSnapApp.SCREEN_WIDTH, "height", FakeSnapApp.SCREEN_HEIGHT);
+            case "GET orientation" -> "PORTRAIT";
+            case "POST timeouts", "DELETE actions", "POST appium/device/hide_keyboard" -> null;
+            case "GET appium/device/is_keyboard_shown" -> false;
+            case "GET appium/device/current_package" -> FakeSnapApp.PACKAGE;
+            case "POST appium/device/activate_app" -> null;
+            case "POST element" -> elementRef(findAll(-1, params, true).get(0));
+            case "POST elements" -> findAll(-1, params, false).stream().map(this::elementRef).toList();
+            case "POST back" -> {
+                app.back();
+                yield null;
+            }
+            case "POST appium/device/press_keycode" -> {
+                app.pressKey(((Number) params.get("keycode")).intValue());
+                yield null;
+            }
+            case "POST actions" -> {
+                performActions(params);
+                yield null;
+            }
+            case "POST execute/sync" -> executeMobile(params);
+            default -> throw unknownCommand(method, path);
+        };
+    }
+
+    private Map<String, Object> newSession() {
+        String sid = UUID.randomUUID().toString();
+        sessions.add(sid);
+        Map<String, Object> caps = new LinkedHashMap<>();
+        caps.put("platformName", "Android");
+        caps.put("appium:automationName", "UiAutomator2");
+        caps.put("appium:deviceName", "fake");
+        return Map.of("sessionId", sid, "capabilities", caps);
+    }
+
+    private Object elementCommand(String method, String elementId, String command, Map<String, Object> params) {
+        Render r = current();
+        int node = resolve(r, elementId);
+        return switch (method + " " + command) {
+            case "POST element" -> elementRef(findAll(node, params, true).get(0));
+            case "POST elements" -> findAll(node, params, false).stream().map(this::elementRef).toList();
+            case "GET text" -> r.ui.text(node);
+            case "GET name" -> r.ui.className(node);
+            case "GET displayed" -> r.ui.isDisplayed(node);
+            case "GET enabled" -> true;
+            case "GET selected" -> "true".equals(r.elements.get(node).getAttribute("selected"));
+            case "GET rect" -> Map.of("x", r.ui.left(node), "y", r.ui.top(node),
+                    "width", r.ui.right(node) - r.ui.left(node), "height", r.ui.bottom(node) - r.ui.top(node));
+            case "POST click" -> {
+                app.click(r.ui, node);
+                yield null;
+            }
+            case "POST clear" -> {
+                app.clearInput();
+                yield null;
+            }
+            case "POST value" -> {
+                app.setInput(String.valueOf(params.getOrDefault("text", "")));
+                yield null;
+            }
+            default -> {
+                if (method.equals("GET") && command.startsWith("attribute/")) {
+                    Element el = r.elements.get(node);
+                    String name = command.substring("attribute/".length());
+                    yield el.hasAttribute(name) ? el.getAttribute(name) : null;
+                }
+                throw new WebDriverError(404, "unknown command", method + " element/" + command);
+            }
+        };
+    }
+
+    // ---------------------------------------------------------------- rendering + element identity
+
+    /** One parsed page source: snapshot and DOM share document order (DOM keeps the hierarchy root). */
+    private record Render(long version, UiSnapshot ui, Document dom, List<Element> elements,
+                          Map<Node, Integer> indexOf, Map<String, Integer> indexByKey, String[] keys) { }
+
+    private Render current() {
+        long version = app.version();
+        Render r = render;
+        if (r != null && r.version == version) return r;
+        synchronized (this) {
+            r = render;
+            if (r != null && r.version == version) return r;
+            r = parse(version, app.pageSource());
+            render = r;
+            return r;
+        }
+    }
+
+    private static Render parse(long version, String xml) {
+        try {
+            Document dom = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+            NodeList all = dom.getElementsByTagName("*");
+            List<Element> elements = new ArrayList<>(all.getLength());
+            for (int i = 1; i < all.getLength(); i++) elements.add((Element) all.item(i)); // skip <hierarchy>
+            UiSnapshot ui = UiSnapshot.parse(xml);
+            Map<Node, Integer> indexOf = new IdentityHashMap<>();
+            Map<String, Integer> indexByKey = new HashMap<>();
+            String[] keys = new String[elements.size()];
+            Map<String, Integer> ordinals = new HashMap<>();
+            for (int i = 0; i < elements.size(); i++) {
+                indexOf.put(elements.get(i), i);
+                int p = ui.parent(i);
+                Element el = elements.get(i);
+                // editable text changes while typing; identity must not
+                String text = el.getTagName().endsWith("EditText") ? "" : el.getAttribute("text");
+                String sig = (p < 0 ? "" : keys[p]) + "/" + el.getTagName() + "|" + el.getAttribute("resource-id")
+                        + "|" + el.getAttribute("content-desc") + "|" + text;
+                int ordinal = ordinals.merge(sig, 1, Integer::sum) - 1;
+                keys[i] = sig + "#" + ordinal;
+                indexByKey.put(keys[i], i);
+            }
+            return new Render(version, ui, dom, elements, indexOf, indexByKey, keys);
+        } catch (Exception e) {
+            throw new IllegalStateException("Fake page source is not well-formed", e);
+        }
+    }
+
+    private Map<String, String> elementRef(int node) {
+        String key = current().keys[node];
+        String id = elementIdByKey.computeIfAbsent(key, k -> {
+            String fresh = "fake-" + nextElementId.incrementAndGet();
+            keyByElementId.put(fresh, k);
+            return fresh;
+        });
+        return Map.of(ELEMENT_KEY, id, "ELEMENT", id);
+    }
+
+    private int resolve(Render r, String elementId) {
+        String key = keyByElementId.get(elementId);
+        Integer node = key == null ? null : r.indexByKey.get(key);
+        if (node == null) throw new WebDriverError(404, "stale element reference", "Element " + elementId + " is no longer attached");
+        return node;
+    }
+
+    // ---------------------------------------------------------------- locators
+
+    private List<Integer> findAll(int root, Map<String, Object> params, boolean single) {
+        String using = String.valueOf(params.get("using"));
+        String value = String.valueOf(params.get("value"));
+        Render r = current();
+        List<Integer> found = switch (using) {
+            case "xpath" -> xpath(r, root, value);
+            case "id" -> scan(r, root, n -> {
+                String rid = r.ui.resourceId(n);
+                return rid.equals(value) || rid.endsWith(":id/" + value);
+            });
+            case "accessibility id" -> scan(r, root, n -> r.ui.contentDesc(n).equals(value));
+            case "class name" -> scan(r, root, n -> r.ui.className(n).equals(value));
+            case "-android uiautomator" -> uiAutomator(root, value);
+            default -> throw new WebDriverError(400, "invalid selector", "Unsupported locator strategy " + using);
+        };
+        if (single && found.isEmpty()) {
+            throw new WebDriverError(404, "no such element", "No element found using " + using + " " + value);
+        }
+        return found;
+    }
+
+    private static List<Integer> scan(Render r, int root, IntPredicate filter) {
+        List<Integer> out = new ArrayList<>();
+        for (int n : r.ui.findAllIn(root, filter)) out.add(n);
+        return out;
+    }
+
+    private static List<Integer> xpath(Render r, int root, String expression) {
+        Locator locator = Locator.compile(expression);
+        List<Integer> out = new ArrayList<>();
+        if (locator.supportsSnapshot()) {
+            for (int n : locator.findIn(r.ui, root)) out.add(n);
+            return out;
+        }
+        try {
+            Object context = root < 0 ? r.dom : r.elements.get(root);
+            NodeList nodes = (NodeList) XPathFactory.newInstance().newXPath().evaluate(expression, context, XPathConstants.NODESET);
+            for (int i = 0; i < nodes.getLength(); i++) {
+                Integer n = r.indexOf.get(nodes.item(i));
+                if (n != null) out.add(n);
+            }
+            return out;
+        } catch (XPathExpressionException e) {
+            throw new WebDriverError(400, "invalid selector", "Invalid XPath " + expression + ": " + e.getMessage());
+        }
+    }
+
+    /** {@code new UiSelector()...} or {@code new UiScrollable(...).scrollIntoView(new UiSelector()...)}. */
+    private List<Integer> uiAutomator(int root, String value) {
+        String expression = value.strip();
+        if (expression.startsWith("new UiScrollable(")) {
+            int at = expression.indexOf(".scrollIntoView(");
+            if (at < 0) throw new WebDriverError(400, "invalid selector", "Unsupported UiScrollable call: " + value);
+            String target = expression.substring(at + ".scrollIntoView(".length(), expression.length() - 1);
+            return scrollIntoView(parseSelector(target));
+        }
+        return select(current(), root, parseSelector(expression));
+    }
+
+    /** Like UiScrollable: look here, then from the top of the list downwards, one page at a time. */
+    private List<Integer> scrollIntoView(List<String[]> selector) {
+        List<Integer> found = select(current(), -1, selector);
+        if (!found.isEmpty() || !app.canScroll(-1) && !app.canScroll(1)) return found.isEmpty() ? found : found.subList(0, 1);
+        while (app.scroll(-FakeSnapApp.SCREEN_HEIGHT)) { /* scroll to beginning */ }
+        do {
+            found = select(current(), -1, selector);
+            if (!found.isEmpty()) return found.subList(0, 1);
+        } while (app.scroll(FakeSnapApp.SCREEN_HEIGHT * 3 / 5));
+        return found;
+    }
+
+    private static List<String[]> parseSelector(String expression) {
+        String s = expression.strip();
+        if (!s.startsWith("new UiSelector()")) throw new WebDriverError(400, "invalid selector", "Not a UiSelector: " + expression);
+        List<String[]> calls = new ArrayList<>();
+        Matcher m = SELECTOR_CALL.matcher(s);
+        int pos = "new UiSelector()".length();
+        while (pos < s.length()) {
+            if (!m.find(pos) || m.start() != pos) throw new WebDriverError(400, "invalid selector", "Unsupported UiSelector: " + expression);
+            String arg = m.group(2);
+            if (arg.startsWith("\"")) arg = arg.substring(1, arg.length() - 1).replaceAll("\\\\(.)", "$1");
+            calls.add(new String[]{m.group(1), arg});
+            pos = m.end();
+        }
+        return calls;
+    }
+
+    private static List<Integer> select(Render r, int root, List<String[]> calls) {
+        int instance = -1;
+        for (String[] call : calls) if (call[0].equals("instance")) instance = Integer.parseInt(call[1]);
+        List<Integer> out = scan(r, root, n -> {
+            Element el = r.elements.get(n);
+            for (String[] call : calls) {
+                if (!matches(r.ui, el, n, call[0], call[1])) return false;
+            }
+            return true;
+        });
+        if (instance < 0) return out;
+        return instance < out.size() ? List.of(out.get(instance)) : List.of();
+    }
+
+    private static boolean matches(UiSnapshot ui, Element el, int n, String method, String arg) {
+        return switch (method) {
+            case "className" -> ui.className(n).equals(arg);
+            case "resourceId" -> ui.resourceId(n).equals(arg);
+            case "resourceIdMatches" -> ui.resourceId(n).matches(arg);
+            case "text" -> ui.text(n).equals(arg);
+            case "textContains" -> ui.text(n).contains(arg);
+            case "textStartsWith" -> ui.text(n).startsWith(arg);
+            case "textMatches" -> ui.text(n).matches(arg);
+            case "description" -> ui.contentDesc(n).equals(arg);
+            case "descriptionContains" -> ui.contentDesc(n).contains(arg);
+            case "descriptionStartsWith" -> ui.contentDesc(n).startsWith(arg);
+            case "descriptionMatches" -> ui.contentDesc(n).matches(arg);
+            case "scrollable", "clickable", "enabled", "selected" -> el.getAttribute(method).equals(arg);
+            case "instance" -> true;
+            default -> throw new WebDriverError(400, "invalid selector", "Unsupported UiSelector method " + method);
+        };
+    }
+
+    // ---------------------------------------------------------------- gestures and mobile: commands
+
+    /** W3C pointer actions: a down/up without travel is a tap, otherwise a vertical drag of the list. */
+    @SuppressWarnings("unchecked")
+    private void performActions(Map<String, Object> params) {
+        for (Object source : (List<Object>) params.getOrDefault("actions", List.of())) {
+            Map<String, Object> src = (Map<String, Object>) source;
+            if (!"pointer".equals(src.get("type"))) continue;
+            int x = 0, y = 0, downX = 0, downY = 0;
+            for (Object a : (List<Object>) src.getOrDefault("actions", List.of())) {
+                Map<String, Object> action = (Map<String, Object>) a;
+                switch (String.valueOf(action.get("type"))) {
+                    case "pointerMove" -> {
+                        x = ((Number) action.getOrDefault("x", x)).intValue();
+                        y = ((Number) action.getOrDefault("y", y)).intValue();
+                    }
+                    case "pointerDown" -> {
+                        downX = x;
+                        downY = y;
+                    }
+                    case "pointerUp" -> {
+                        if (Math.abs(y - downY) < 10 && Math.abs(x - downX) < 10) app.tap(x, y);
+                        else app.scroll(downY - y);
+                    }
+                    default -> { }
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object executeMobile(Map<String, Object> params) {
+        String script = String.valueOf(params.get("script")).strip();
+        List<Object> args = (List<Object>) params.getOrDefault("args", List.of());
+        Map<String, Object> a = args.isEmpty() ? Map.of() : (Map<String, Object>) args.get(0);
+        switch (script) {
+            case "mobile: scrollGesture" -> {
+                double percent = ((Number) a.getOrDefault("percent", 1.0)).doubleValue();
+                int height = ((Number) a.getOrDefault("height", FakeSnapApp.SCREEN_HEIGHT)).intValue();
+                int dy = (int) Math.round(percent * height);
+                int signed = "up".equals(a.get("direction")) ? -dy : dy;
+                app.scroll(signed);
+                return app.canScroll(signed);
+            }
+            case "mobile: hideKeyboard" -> {
+                return null;
+            }
+            case "mobile: pressKey" -> {
+                app.pressKey(((Number) a.get("keycode")).intValue());
+                return null;
+            }
+            case "mobile: getCurrentPackage" -> {
+                return FakeSnapApp.PACKAGE;
+            }
+            case "mobile: activateApp" -> {
+                return null; // already in the foreground
+            }
+            case "mobile: type" -> {
+                app.type(String.valueOf(a.getOrDefault("text", "")));
+                return null;
+            }
+            default -> throw new WebDriverError(404, "unknown method", "Unsupported script " + script);
+        }
+    }
+
+    private void delay(long base) {
+        long extra;
+        synchronized (jitter) {
+            extra = latency.jitterMillis() > 0 ? jitter.nextLong(latency.jitterMillis() + 1) : 0;
+            if (latency.spikeChance() > 0 && jitter.nextDouble() < latency.spikeChance()) extra += latency.spikeMillis();
+        }
+        long ms = base + extra;
+        if (ms <= 0) return;
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static WebDriverError unknownCommand(String method, String[] path) {
+        return new WebDriverError(404, "unknown command", "Unknown command " + method + " /" + String.join("/", path));
+    }
+}
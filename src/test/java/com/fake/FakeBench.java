@@ -0,0 +1,137 @@
+package com.fake;
+
+import com.snap.Snap;
+import com.utils.Metrics;
+import com.utils.UiWait;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * End-to-end throughput benchmark: the whole {@code Snap} flow against a {@link FakeAppiumServer}, for every
+ * combination of device latency profile and roster size.
+ * <p>
+ * Usage: {@code java com.fake.FakeBench [--profiles phone,emulator,congested-adb] [--friends 100,1000]
+ * [--strangers 0.2] [--seed 7] [--out bench]}. Each run gets a fresh fake app and server, cold wait bounds and
+ * fresh metrics; the journal, relationship cache, prepared repair session and metrics report are off. Per run it reports
+ * friends per minute (friends decided, and friends messaged or removed), device commands per friend and the
+ * time spent in each phase ({@code phase.*} metrics: scan in element mode, discover in snapshot mode), logs a
+ * table and writes it to {@code <out>/throughput-<time>.tsv}, so two builds can be compared on the same seed.
+ */
+public final class FakeBench {
+    private static final Logger log = LoggerFactory.getLogger(FakeBench.class);
+
+    private static final List<String> PHASES = List.of("scan", "discover", "open", "probe", "send", "unfriend", "return");
+
+    private record Result(String profile, int friends, double seconds, long decided, long acted, long commands,
+                          double[] phaseSeconds) {
+        double perMinute(long n) {
+            return seconds <= 0 ? 0 : n / (seconds / 60);
+        }
+    }
+
+    private FakeBench() {}
+
+    public static void main(String[] args) throws Exception {
+        List<String> profiles = List.of("phone", "emulator", "congested-adb");
+        List<Integer> sizes = List.of(100, 1000);
+        double strangers = 0.2;
+        long seed = 7;
+        Path out = Path.of("bench");
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--profiles" -> profiles = Arrays.asList(args[++i].split(","));
+                case "--friends" -> sizes = Arrays.stream(args[++i].split(",")).map(Integer::valueOf).toList();
+                case "--strangers" -> strangers = Double.parseDouble(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--out" -> out = Path.of(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown argument " + args[i]);
+            }
+        }
+        for (String profile : profiles) FakeAppiumServer.Latency.profile(profile, seed); // fail before hours of runs
+
+        System.setProperty("session.reuse.enable", "false");
+        System.setProperty("journal.enable", "false");
+        System.setProperty("relationship.cache.enable", "false");
+        System.setProperty("metrics.enable", "false");
+        System.setProperty("roster.dir", out.resolve("roster").toString());
+
+        List<Result> results = new ArrayList<>();
+        for (String profile : profiles) {
+            for (int friends : sizes) {
+                log.info("▶ Benchmark run: profile={}, friends={}", profile, friends);
+                Result r = run(profile, friends, strangers, seed);
+                results.add(r);
+                log.info("{}", row(r, " | "));
+            }
+        }
+        log.info("{}", header(" | "));
+        results.forEach(r -> log.info("{}", row(r, " | ")));
+        write(out, results);
+        System.exit(0);
+    }
+
+    private static Result run(String profile, int friends, double strangers, long seed) throws Exception {
+        FakeSnapApp app = FakeSnapApp.generate(friends, strangers, seed);
+        try (FakeAppiumServer server = FakeAppiumServer.start(app, FakeAppiumServer.Latency.profile(profile, seed), 0)) {
+            System.setProperty("appium.url", server.url());
+            UiWait.reset();
+            long start = System.nanoTime();
+            Snap snap = new Snap(); // resets the metrics
+            try {
+                snap.openNewChat();
+                snap.sendMessageToEveryOne();
+            } finally {
+                snap.close();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            double[] phases = new double[PHASES.size()];
+            for (int i = 0; i < PHASES.size(); i++) {
+                Metrics.Histogram h = Metrics.histogram("phase." + PHASES.get(i));
+                phases[i] = h == null ? 0 : h.totalNanos() / 1e9;
+            }
+            long acted = app.sent().size() + app.removed().size();
+            return new Result(profile, friends, seconds, Metrics.count("friends"), acted, server.totalCommands(), phases);
+        }
+    }
+
+    private static String header(String sep) {
+        List<String> cols = new ArrayList<>(List.of("profile", "friends", "seconds", "decided/min", "acted/min",
+                "commands", "commands/friend"));
+        PHASES.forEach(p -> cols.add(p + " s"));
+        return String.join(sep, cols);
+    }
+
+    private static String row(Result r, String sep) {
+        List<String> cols = new ArrayList<>(List.of(r.profile(), Integer.toString(r.friends()), fmt(r.seconds()),
+                fmt(r.perMinute(r.decided())), fmt(r.perMinute(r.acted())), Long.toString(r.commands()),
+                fmt((double) r.commands() / Math.max(1, r.friends()))));
+        for (double s : r.phaseSeconds()) cols.add(fmt(s));
+        return String.join(sep, cols);
+    }
+
+    private static String fmt(double v) {
+        return String.format(Locale.ROOT, "%.1f", v);
+    }
+
+    private static void write(Path dir, List<Result> results) throws IOException {
+        Files.createDirectories(dir);
+        Path file = dir.resolve("throughput-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".tsv");
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write(header("\t") + "\n");
+            for (Result r : results) w.write(row(r, "\t") + "\n");
+        }
+        log.info("Benchmark results written to {}", file);
+    }
+}
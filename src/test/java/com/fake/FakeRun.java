@@ -0,0 +1,86 @@
+package com.fake;
+
+import com.snap.Snap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the full {@code Snap} flow offline against a {@link FakeAppiumServer}.
+ * <p>
+ * Usage: {@code java com.fake.FakeRun [--friends 120] [--strangers 0.2] [--seed 7] [--latency 40]
+ * [--source-latency 120] [--jitter 10] [--profile phone] [--port 0] [--journal] [--cache]}. {@code --profile}
+ * picks a named device ({@link FakeAppiumServer.Latency#profile}) instead of the latency flags. The same seed
+ * gives the same roster, latency and therefore the same run. The journal and the relationship cache are off
+ * unless {@code --journal} / {@code --cache} is given so repeated runs start fresh; any other key can be
+ * overridden with {@code -Dkey=value}. {@link FakeBench} runs a matrix of profiles and roster sizes.
+ */
+public final class FakeRun {
+    private static final Logger log = LoggerFactory.getLogger(FakeRun.class);
+
+    private FakeRun() {}
+
+    public static void main(String[] args) throws Exception {
+        int friends = 120;
+        double strangers = 0.2;
+        long seed = 7;
+        long latency = 0;
+        long sourceLatency = -1;
+        long jitter = 0;
+        String profileName = null;
+        int port = 0;
+        boolean journal = false;
+        boolean cache = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--friends" -> friends = Integer.parseInt(args[++i]);
+                case "--strangers" -> strangers = Double.parseDouble(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--latency" -> latency = Long.parseLong(args[++i]);
+                case "--source-latency" -> sourceLatency = Long.parseLong(args[++i]);
+                case "--jitter" -> jitter = Long.parseLong(args[++i]);
+                case "--profile" -> profileName = args[++i];
+                case "--port" -> port = Integer.parseInt(args[++i]);
+                case "--journal" -> journal = true;
+                case "--cache" -> cache = true;
+                default -> throw new IllegalArgumentException("Unknown argument " + args[i]);
+            }
+        }
+
+        FakeSnapApp app = FakeSnapApp.generate(friends, strangers, seed);
+        FakeAppiumServer.Latency profile = profileName != null ? FakeAppiumServer.Latency.profile(profileName, seed)
+                : new FakeAppiumServer.Latency(latency, sourceLatency < 0 ? latency : sourceLatency, jitter, seed);
+        try (FakeAppiumServer server = FakeAppiumServer.start(app, profile, port)) {
+            System.setProperty("appium.url", server.url());
+            System.setProperty("journal.enable", Boolean.toString(journal));
+            System.setProperty("relationship.cache.enable", Boolean.toString(cache));
+
+            long start = System.nanoTime();
+            Snap snap = new Snap();
+            try {
+                snap.openNewChat();
+                snap.sendMessageToEveryOne();
+            } finally {
+                snap.close();
+            }
+            report(app, server, friends, System.nanoTime() - start);
+        }
+        System.exit(0);
+    }
+
+    private static void report(FakeSnapApp app, FakeAppiumServer server, int friends, long nanos) {
+        Map<String, List<String>> sent = app.sent();
+        long repeated = sent.values().stream().filter(messages -> messages.size() > 1).count();
+        double minutes = nanos / 60e9;
+        log.info("Fake run: {} friends, {} messaged ({} more than once), {} removed, {} remaining in roster",
+                friends, sent.size(), repeated, app.removed().size(), app.roster().size());
+        log.info("Fake run: {} s, {} friends/min, {} device commands ({} per friend)",
+                String.format("%.1f", nanos / 1e9), String.format("%.1f", (sent.size() + app.removed().size()) / minutes),
+                server.totalCommands(), String.format("%.1f", (double) server.totalCommands() / Math.max(1, friends)));
+        server.commandCounts().entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(e -> log.info("    {} x{}", e.getKey(), e.getValue()));
+    }
+}
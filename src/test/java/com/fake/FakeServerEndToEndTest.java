@@ -0,0 +1,109 @@
+package com.fake;
+
+import com.snap.Snap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The whole {@link Snap} flow against {@link FakeAppiumServer}, in snapshot and in element mode, checked against
+ * the fake app's own record of what was sent and removed. The friend rules are pinned through system properties,
+ * so edits to the shipped config.properties do not change what is expected here.
+ */
+class FakeServerEndToEndTest {
+
+    private static final String MESSAGE = "Hey! This is an automated test message";
+    private static final List<String> PROTECTED = List.of("best friend", "pinned", "family");
+    private static final Map<String, String> RULES = Map.ofEntries(
+            Map.entry("message.to.send", MESSAGE),
+            Map.entry("message.input.mode", "type"),
+            Map.entry("send.only.to", ""),
+            Map.entry("skip.if.contains", ""),
+            Map.entry("unfriend.enable", "true"),
+            Map.entry("unfriend.skip.if.contains", String.join(",", PROTECTED)),
+            Map.entry("dont.unfriend.if.lastMessageContains", ""),
+            Map.entry("roster.scan.only", "false"),
+            Map.entry("element.cache.enable", "true"),
+            Map.entry("journal.enable", "false"),
+            Map.entry("relationship.cache.enable", "false"),
+            Map.entry("config.reload.enable", "false"),
+            Map.entry("session.reuse.enable", "false"),
+            Map.entry("metrics.enable", "true"));
+    private static final List<String> PER_RUN = List.of("appium.url", "snapshot.enable", "roster.dir", "metrics.dir");
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void clearProperties() {
+        RULES.keySet().forEach(System::clearProperty);
+        PER_RUN.forEach(System::clearProperty);
+    }
+
+    @Test
+    void snapshotModeMessagesEveryMutualFriendExactlyOnce() throws Exception {
+        runAndCheck(true);
+    }
+
+    @Test
+    void elementModeMessagesEveryMutualFriendExactlyOnce() throws Exception {
+        runAndCheck(false);
+    }
+
+    private void runAndCheck(boolean snapshotMode) throws Exception {
+        FakeSnapApp app = FakeSnapApp.generate(20, 0.25, 11);
+        List<FakeSnapApp.Friend> roster = app.roster();
+
+        try (FakeAppiumServer server = FakeAppiumServer.start(app, FakeAppiumServer.Latency.none(), 0)) {
+            RULES.forEach(System::setProperty);
+            System.setProperty("appium.url", server.url());
+            System.setProperty("snapshot.enable", Boolean.toString(snapshotMode));
+            System.setProperty("roster.dir", dir.resolve("roster").toString());
+            System.setProperty("metrics.dir", dir.resolve("metrics").toString());
+
+            Snap snap = new Snap();
+            try {
+                snap.openNewChat();
+                snap.sendMessageToEveryOne();
+            } finally {
+                snap.close();
+            }
+        }
+
+        Map<String, List<String>> sent = app.sent();
+        Set<String> removed = app.removed();
+        int messaged = 0;
+        int unfriended = 0;
+        for (FakeSnapApp.Friend friend : roster) {
+            String name = friend.name();
+            if (friend.mutual()) {
+                assertEquals(List.of(MESSAGE), sent.get(name), "messages to " + name);
+                assertFalse(removed.contains(name), "mutual friend was removed: " + name);
+                messaged++;
+            } else {
+                assertFalse(sent.containsKey(name), "non-mutual friend was messaged: " + name);
+                assertEquals(!contains(name, PROTECTED), removed.contains(name), "removal of " + name);
+                if (removed.contains(name)) unfriended++;
+            }
+        }
+        assertEquals(messaged, sent.size());
+        assertEquals(unfriended, removed.size());
+        // the roster exercises every path
+        assertTrue(messaged > 0 && unfriended > 0, "messaged " + messaged + ", removed " + unfriended);
+    }
+
+    private static boolean contains(String name, List<String> tokens) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        return tokens.stream().anyMatch(lower::contains);
+    }
+}
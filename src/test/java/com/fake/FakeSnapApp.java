@@ -0,0 +1,436 @@
+package com.fake;
+
+import com.utils.UiSnapshot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Screen model of the Snapchat flows {@code Snap} drives, rendered from page sources recorded on a device
+ * ({@code src/test/resources/fake/*.xml}). The New Chat list is laid out from the roster with real row
+ * geometry: rows outside the list viewport are absent and edge rows report clipped bounds, as UiAutomator2
+ * does. Clicks, taps, back, drags and keys move between screens; sent messages and removed friends are
+ * recorded so a run can be checked afterwards.
+ */
+public final class FakeSnapApp {
+
+    public static final int SCREEN_WIDTH = 1080;
+    public static final int SCREEN_HEIGHT = 2400;
+    public static final String PACKAGE = "com.snapchat.android";
+    private static final int LIST_TOP = 400;
+    private static final int LIST_BOTTOM = SCREEN_HEIGHT;
+    private static final int HEADER_HEIGHT = 80;
+    private static final int ROW_HEIGHT = 160;
+    private static final String ROW_ID_PREFIX = "select_recipients_friends_";
+    private static final String ATTRS = "package=\"com.snapchat.android\" checkable=\"false\" checked=\"false\" enabled=\"true\" "
+            + "focusable=\"false\" focused=\"false\" long-clickable=\"false\" password=\"false\" selected=\"false\" displayed=\"true\"";
+
+    private static final String[] FIRST_NAMES = {"Aarav", "Bella", "Chen", "Diya", "Elena", "Farah", "Gabe", "Hana",
+            "Ishan", "Jade", "Kiran", "Liam", "Maya", "Nikhil", "Olivia", "Priya", "Quinn", "Ravi", "Sara", "Tara",
+            "Uma", "Vikram", "Wen", "Ximena", "Yash", "Zoe", "_Sam", "1Nick"};
+    private static final String[] LAST_NAMES = {"Best Friend", "Busy", "Family", "K", "M", "Patel", "Rao", "S", "Singh", "W"};
+
+    /** One roster entry; {@code mutual} is false when the other side no longer has us as a friend. */
+    public record Friend(String id, String name, boolean mutual) { }
+
+    enum Screen { CAMERA, CHAT, NEW_CHAT, CONVERSATION, PROFILE, PROFILE_MENU, MANAGE_FRIENDSHIP, REMOVE_DIALOG }
+
+    private final Map<String, String> templates = new HashMap<>();
+    private final List<Friend> roster;
+    private final Map<String, Friend> byRowId = new HashMap<>();
+    private final Map<String, List<String>> sent = new LinkedHashMap<>();
+    private final Set<String> removed = new LinkedHashSet<>();
+    private final Deque<Screen> stack = new ArrayDeque<>();
+
+    private int scrollY;
+    private Friend selected;
+    private Friend open;
+    private String draft = "";
+    private long version;
+
+    public FakeSnapApp(List<Friend> roster) {
+        this.roster = new ArrayList<>(roster);
+        this.roster.sort((a, b) -> a.name().compareToIgnoreCase(b.name()));
+        for (Friend f : this.roster) byRowId.put(ROW_ID_PREFIX + f.id(), f);
+        for (String name : List.of("camera", "chat", "new_chat", "conversation", "profile", "remove_dialog")) {
+            templates.put(name, load("fake/" + name + ".xml"));
+        }
+        stack.push(Screen.CAMERA);
+    }
+
+    /** Deterministic roster of {@code count} unique names; {@code strangerRatio} of them are not mutual. */
+    public static FakeSnapApp generate(int count, double strangerRatio, long seed) {
+        Random random = new Random(seed);
+        List<Friend> friends = new ArrayList<>(count);
+        Set<String> names = new LinkedHashSet<>();
+        for (int i = 0; i < count; i++) {
+            String base = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            String name = base;
+            for (int n = 2; !names.add(name); n++) name = base + " " + n;
+            friends.add(new Friend(String.format("u%05d", i), name, random.nextDouble() >= strangerRatio));
+        }
+        return new FakeSnapApp(friends);
+    }
+
+    // ---------------------------------------------------------------- observed state
+
+    /** Bumped on every visible change; equal versions render identical page sources. */
+    public synchronized long version() {
+        return version;
+    }
+
+    public synchronized List<Friend> roster() {
+        return List.copyOf(roster);
+    }
+
+    /** Messages sent per friend name, in send order. */
+    public synchronized Map<String, List<String>> sent() {
+        Map<String, List<String>> copy = new LinkedHashMap<>();
+        sent.forEach((k, v) -> copy.put(k, List.copyOf(v)));
+        return copy;
+    }
+
+    public synchronized Set<String> removed() {
+        return Set.copyOf(removed);
+    }
+
+    synchronized Screen screen() {
+        return stack.peek();
+    }
+
+    // ---------------------------------------------------------------- rendering
+
+    public synchronized String pageSource() {
+        Friend shown = open;
+        return switch (stack.peek()) {
+            case CAMERA -> templates.get("camera");
+            case CHAT -> templates.get("chat");
+            case NEW_CHAT -> fill(templates.get("new_chat"), Map.of("list", renderList(), "selection", renderSelection()));
+            case CONVERSATION -> fill(templates.get("conversation"), Map.of(
+                    "name", escape(shown.name()),
+                    "headerActions", renderHeaderActions(shown),
+                    "messages", renderMessages(shown),
+                    "draft", escape(draft)));
+            case PROFILE, PROFILE_MENU, MANAGE_FRIENDSHIP -> fill(templates.get("profile"), Map.of(
+                    "name", escape(shown.name()),
+                    "menu", renderSheet(stack.peek())));
+            case REMOVE_DIALOG -> fill(templates.get("remove_dialog"), Map.of("name", escape(shown.name())));
+        };
+    }
+
+    private String renderList() {
+        StringBuilder out = new StringBuilder();
+        int y = 0;
+        int i = 0;
+        while (i < roster.size()) {
+            String section = sectionOf(roster.get(i).name());
+            int end = i;
+            while (end < roster.size() && sectionOf(roster.get(end).name()).equals(section)) end++;
+            int sectionTop = y;
+            int sectionBottom = y + HEADER_HEIGHT + (end - i) * ROW_HEIGHT;
+            if (visible(sectionTop, sectionBottom)) {
+                out.append("      ").append(listNode("android.view.View", section, "", "", false, sectionTop, sectionBottom, 0, SCREEN_WIDTH, false)).append('\n');
+                if (visible(sectionTop, sectionTop + HEADER_HEIGHT)) {
+                    out.append("        ").append(listNode("android.widget.TextView", "", section, "", false,
+                            sectionTop + 10, sectionTop + HEADER_HEIGHT - 10, 40, 200, true)).append('\n');
+                }
+                int rowTop = sectionTop + HEADER_HEIGHT;
+                for (int r = i; r < end; r++, rowTop += ROW_HEIGHT) {
+                    if (!visible(rowTop, rowTop + ROW_HEIGHT)) continue;
+                    Friend f = roster.get(r);
+                    out.append("        ").append(listNode("android.view.View", ROW_ID_PREFIX + f.id(), "", "", true,
+                            rowTop, rowTop + ROW_HEIGHT, 0, SCREEN_WIDTH, false)).append('\n');
+                    if (visible(rowTop + 20, rowTop + 140)) {
+                        out.append("          ").append(listNode("android.widget.ImageView", "", "", "Bitmoji", false,
+                                rowTop + 20, rowTop + 140, 40, 160, true)).append('\n');
+                    }
+                    if (visible(rowTop + 45, rowTop + 115)) {
+                        out.append("          ").append(listNode("android.widget.TextView", "", f.name(), "", false,
+                                rowTop + 45, rowTop + 115, 200, 900, true)).append('\n');
+                    }
+                    if (f == selected && visible(rowTop + 50, rowTop + 110)) {
+                        out.append("          ").append(listNode("android.widget.ImageView", "", "", "Selected", false,
+                                rowTop + 50, rowTop + 110, 960, 1020, true)).append('\n');
+                    }
+                    out.append("        </android.view.View>\n");
+                }
+                out.append("      </android.view.View>\n");
+            }
+            y = sectionBottom;
+            i = end;
+        }
+        return out.toString();
+    }
+
+    private String renderSelection() {
+        if (selected == null) return "";
+        return "    " + leaf("android.widget.Button", "", "", "Chat", true, 2220, 2360, 760, 1040);
+    }
+
+    private static String renderHeaderActions(Friend f) {
+        if (f.mutual()) {
+            return "      " + leaf("android.view.View", "", "", "Start an audio call", true, 120, 220, 780, 880) + "\n"
+                    + "      " + leaf("android.view.View", "", "", "Start a video call", true, 120, 220, 900, 1000);
+        }
+        return "      " + leaf("android.widget.Button", "chat-header-add-friend-button", "Add", "", true, 120, 220, 840, 1040);
+    }
+
+    private String renderMessages(Friend f) {
+        List<String> messages = sent.getOrDefault(f.name(), List.of());
+        StringBuilder out = new StringBuilder();
+        int top = 2040;
+        for (int m = messages.size() - 1; m >= 0 && top > 260; m--, top -= 110) {
+            out.append("      ").append(leaf("android.widget.TextView", "com.snapchat.android:id/chat_message_text",
+                    messages.get(m), "", false, top, top + 100, 120, 1000)).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static String renderSheet(Screen screen) {
+        List<String> items = switch (screen) {
+            case PROFILE_MENU -> List.of("Manage Friendship", "Send Profile To ...", "Edit Name");
+            case MANAGE_FRIENDSHIP -> List.of("Remove Friend", "Block", "Report");
+            default -> List.of();
+        };
+        if (items.isEmpty()) return "";
+        StringBuilder out = new StringBuilder("    <android.view.View index=\"9\" " + ATTRS
+                + " class=\"android.view.View\" text=\"\" resource-id=\"action_sheet\" content-desc=\"\" clickable=\"false\" scrollable=\"false\" bounds=\"[0,1500][1080,2400]\">\n");
+        int top = 1560;
+        for (String item : items) {
+            out.append("      ").append(leaf("javaClass", "", item, "", true, top, top + 140, 40, 1040)).append('\n');
+            top += 160;
+        }
+        return out.append("    </android.view.View>").toString();
+    }
+
+    /** True when any part of the list-content range [top, bottom) is inside the list viewport. */
+    private boolean visible(int contentTop, int contentBottom) {
+        return toScreen(contentTop) < toScreen(contentBottom);
+    }
+
+    /** List-content y to screen y, clipped to the list viewport like UiAutomator2 bounds. */
+    private int toScreen(int contentY) {
+        return Math.max(LIST_TOP, Math.min(LIST_BOTTOM, contentY - scrollY + LIST_TOP));
+    }
+
+    private String listNode(String cls, String rid, String text, String desc, boolean clickable, int contentTop, int contentBottom,
+                            int left, int right, boolean selfClosing) {
+        return node(cls, rid, text, desc, clickable, toScreen(contentTop), toScreen(contentBottom), left, right, selfClosing);
+    }
+
+    private static String leaf(String cls, String rid, String text, String desc, boolean clickable, int top, int bottom, int left, int right) {
+        return node(cls, rid, text, desc, clickable, top, bottom, left, right, true);
+    }
+
+    private static String node(String cls, String rid, String text, String desc, boolean clickable, int top, int bottom, int left, int right, boolean selfClosing) {
+        return "<" + cls + " index=\"0\" " + ATTRS + " class=\"" + cls + "\" text=\"" + escape(text) + "\" resource-id=\"" + escape(rid)
+                + "\" content-desc=\"" + escape(desc) + "\" clickable=\"" + clickable + "\" scrollable=\"false\" bounds=\"["
+                + left + "," + top + "][" + right + "," + bottom + "]\"" + (selfClosing ? " />" : ">");
+    }
+
+    // ---------------------------------------------------------------- input
+
+    /** Click on node {@code node} of a snapshot of the current screen. */
+    public synchronized void click(UiSnapshot ui, int node) {
+        for (int n = node; n >= 0; n = ui.parent(n)) {
+            if (handleClick(ui, n)) {
+                version++;
+                return;
+            }
+        }
+    }
+
+    /** Tap at screen coordinates: clicks the deepest node under the finger. */
+    public synchronized void tap(int x, int y) {
+        UiSnapshot ui = UiSnapshot.parse(pageSource());
+        int hit = -1;
+        for (int n = 0; n < ui.size(); n++) {
+            if (x >= ui.left(n) && x < ui.right(n) && y >= ui.top(n) && y < ui.bottom(n)) hit = n;
+        }
+        if (hit >= 0) click(ui, hit);
+    }
+
+    private boolean handleClick(UiSnapshot ui, int n) {
+        String rid = ui.resourceId(n);
+        String text = ui.text(n);
+        String desc = ui.contentDesc(n);
+        String cls = ui.className(n);
+        switch (stack.peek()) {
+            case CAMERA -> {
+                if (desc.equals("Chat")) return push(Screen.CHAT);
+            }
+            case CHAT -> {
+                if (cls.equals("android.widget.RelativeLayout")) {
+                    scrollY = 0;
+                    selected = null;
+                    return push(Screen.NEW_CHAT);
+                }
+                if (desc.equals("Chat")) return true;
+            }
+            case NEW_CHAT -> {
+                if (cls.equals("android.widget.Button") && desc.equals("Chat") && selected != null) {
+                    open = selected;
+                    selected = null;
+                    draft = "";
+                    return push(Screen.CONVERSATION);
+                }
+                Friend f = byRowId.get(rid);
+                if (f != null && roster.contains(f)) {
+                    selected = selected == f ? null : f;
+                    return true;
+                }
+            }
+            case CONVERSATION -> {
+                if (rid.equals("com.snapchat.android:id/0_resource_name_obfuscated")) return push(Screen.PROFILE);
+                if (cls.equals("android.widget.EditText")) return true;
+            }
+            case PROFILE -> {
+                if (rid.equals("upp-menu-button")) return push(Screen.PROFILE_MENU);
+            }
+            case PROFILE_MENU -> {
+                if (text.equals("Manage Friendship")) {
+                    stack.pop();
+                    return push(Screen.MANAGE_FRIENDSHIP);
+                }
+                if (rid.equals("upp-menu-button")) {
+                    stack.pop();
+                    return true;
+                }
+            }
+            case MANAGE_FRIENDSHIP -> {
+                if (text.equals("Remove Friend")) return push(Screen.REMOVE_DIALOG);
+            }
+            case REMOVE_DIALOG -> {
+                if (text.equals("Remove")) {
+                    roster.remove(open);
+                    removed.add(open.name());
+                    stack.pop();
+                    stack.pop();
+                    return true;
+                }
+                if (text.equals("Cancel")) {
+                    stack.pop();
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean push(Screen screen) {
+        stack.push(screen);
+        return true;
+    }
+
+    public synchronized void back() {
+        if (stack.size() > 1) {
+            Screen left = stack.pop();
+            if (left == Screen.NEW_CHAT) selected = null;
+            version++;
+        }
+    }
+
+    /** Moves the New Chat list content up by {@code dy} px (negative moves it down); false when nothing moved. */
+    public synchronized boolean scroll(int dy) {
+        if (stack.peek() != Screen.NEW_CHAT) return false;
+        int max = Math.max(0, contentHeight() - (LIST_BOTTOM - LIST_TOP));
+        int next = Math.max(0, Math.min(max, scrollY + dy));
+        if (next == scrollY) return false;
+        scrollY = next;
+        version++;
+        return true;
+    }
+
+    /** True while the New Chat list can still move in the direction of {@code dy}. */
+    public synchronized boolean canScroll(int dy) {
+        if (stack.peek() != Screen.NEW_CHAT) return false;
+        int max = Math.max(0, contentHeight() - (LIST_BOTTOM - LIST_TOP));
+        return dy > 0 ? scrollY < max : scrollY > 0;
+    }
+
+    /** Text typed into the focused chat input. */
+    public synchronized void type(String text) {
+        if (stack.peek() != Screen.CONVERSATION) return;
+        draft += text;
+        version++;
+    }
+
+    /** Element value on the chat input: like UiAutomator2's setText it replaces the text instead of appending. */
+    public synchronized void setInput(String text) {
+        if (stack.peek() != Screen.CONVERSATION || draft.equals(text)) return;
+        draft = text;
+        version++;
+    }
+
+    public synchronized void clearInput() {
+        if (stack.peek() != Screen.CONVERSATION || draft.isEmpty()) return;
+        draft = "";
+        version++;
+    }
+
+    /** Android key press; ENTER (66) in a chat sends the draft. */
+    public synchronized void pressKey(int keyCode) {
+        if (keyCode == 66 && stack.peek() == Screen.CONVERSATION && !draft.isBlank()) {
+            sent.computeIfAbsent(open.name(), k -> new ArrayList<>()).add(draft);
+            draft = "";
+            version++;
+        } else if (keyCode == 4) {
+            back();
+        }
+    }
+
+    private int contentHeight() {
+        int height = 0;
+        String section = null;
+        for (Friend f : roster) {
+            String s = sectionOf(f.name());
+            if (!s.equals(section)) {
+                height += HEADER_HEIGHT;
+                section = s;
+            }
+            height += ROW_HEIGHT;
+        }
+        return height;
+    }
+
+    private static String sectionOf(String name) {
+        char c = name.isEmpty() ? '#' : Character.toUpperCase(name.charAt(0));
+        return c >= 'A' && c <= 'Z' ? String.valueOf(c) : "#";
+    }
+
+    private static String fill(String template, Map<String, String> values) {
+        String out = template;
+        for (Map.Entry<String, String> e : values.entrySet()) out = out.replace("${" + e.getKey() + "}", e.getValue());
+        return out;
+    }
+
+    private static String escape(String s) {
+        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    private static String load(String resource) {
+        try (InputStream is = FakeSnapApp.class.getClassLoader().getResourceAsStream(resource)) {
+            if (is == null) throw new IllegalStateException(resource + " not found on classpath");
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load " + resource, e);
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "FakeSnapApp[" + stack.peek() + ", roster=" + roster.size() + ", scrollY=" + scrollY + "]";
+    }
+}
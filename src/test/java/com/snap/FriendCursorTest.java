@@ -0,0 +1,61 @@
+package com.snap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FriendCursorTest {
+
+    private static final FriendCursor.FriendKey ANN = new FriendCursor.FriendKey("Ann", "row_1");
+    private static final FriendCursor.FriendKey BOB = new FriendCursor.FriendKey("Bob", "row_2");
+    private static final FriendCursor.FriendKey CARL = new FriendCursor.FriendKey("Carl", "row_3");
+    private static final FriendCursor.FriendKey DAN = new FriendCursor.FriendKey("Dan", "row_4");
+    private static final FriendCursor.FriendKey EVE = new FriendCursor.FriendKey("Eve", "row_5");
+
+    @Test
+    void removedRowDoesNotSkipItsSuccessor() {
+        FriendCursor cursor = new FriendCursor();
+        List<FriendCursor.FriendKey> rows = new ArrayList<>(List.of(ANN, BOB, CARL));
+        assertEquals(0, visitNext(cursor, rows));
+        assertEquals(1, visitNext(cursor, rows));
+
+        rows.remove(BOB); // unfriended: Carl moves up into Bob's place
+        assertEquals(1, visitNext(cursor, rows));
+        assertEquals(-1, cursor.next(rows));
+    }
+
+    @Test
+    void eachSectionIsWalkedFromItsTopAfterReset() {
+        FriendCursor cursor = new FriendCursor();
+        walk(cursor, List.of(ANN, BOB));
+
+        List<FriendCursor.FriendKey> second = List.of(CARL, DAN, EVE);
+        cursor.resetPosition();
+        assertEquals(List.of(CARL, DAN, EVE), walk(cursor, second));
+    }
+
+    @Test
+    void resumedCursorSkipsProcessedFriends() {
+        FriendCursor cursor = new FriendCursor();
+        cursor.resumeFrom(Set.of(ANN, BOB), BOB);
+        assertEquals(List.of(CARL, DAN), walk(cursor, List.of(ANN, BOB, CARL, DAN)));
+        assertEquals(4, cursor.visitedCount());
+    }
+
+    private static int visitNext(FriendCursor cursor, List<FriendCursor.FriendKey> rows) {
+        int i = cursor.next(rows);
+        if (i >= 0) cursor.markVisited(rows.get(i));
+        return i;
+    }
+
+    private static List<FriendCursor.FriendKey> walk(FriendCursor cursor, List<FriendCursor.FriendKey> rows) {
+        List<FriendCursor.FriendKey> order = new ArrayList<>();
+        int i;
+        while ((i = visitNext(cursor, rows)) >= 0) order.add(rows.get(i));
+        return order;
+    }
+}
@@ -0,0 +1,144 @@
+package com.snap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RunJournalTest {
+
+    private static final FriendCursor.FriendKey ANN = new FriendCursor.FriendKey("Ann", "row_1");
+    private static final FriendCursor.FriendKey BOB = new FriendCursor.FriendKey("Bob", "row_2");
+    private static final FriendCursor.FriendKey CARL = new FriendCursor.FriendKey("Carl", "row_3");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void interruptedRunResumesFromItsRecords() {
+        try (RunJournal journal = RunJournal.open(dir)) {
+            journal.started(ANN);
+            journal.finished(ANN, Decision.SEND, true);
+            journal.started(BOB);
+            journal.finished(BOB, Decision.UNFRIEND, true);
+        }
+
+        try (RunJournal resumed = RunJournal.open(dir)) {
+            assertEquals(Set.of(ANN, BOB), resumed.processed());
+            assertEquals(BOB, resumed.lastProcessed());
+        }
+    }
+
+    @Test
+    void startedWithoutOutcomeCountsAsProcessed() {
+        try (RunJournal journal = RunJournal.open(dir)) {
+            journal.started(ANN);
+        }
+
+        try (RunJournal resumed = RunJournal.open(dir)) {
+            assertEquals(Set.of(ANN), resumed.processed()); // the message may have gone out: never send twice
+        }
+    }
+
+    @Test
+    void failedOutcomeIsRetried() {
+        try (RunJournal journal = RunJournal.open(dir)) {
+            journal.started(ANN);
+            journal.finished(ANN, Decision.SEND, false);
+            journal.started(BOB);
+            journal.finished(BOB, Decision.ERROR, false);
+            assertEquals(Set.of(), journal.processed());
+        }
+
+        try (RunJournal resumed = RunJournal.open(dir)) {
+            assertEquals(Set.of(), resumed.processed());
+            assertEquals(BOB, resumed.lastProcessed());
+        }
+    }
+
+    @Test
+    void tornTailIsIgnored() throws IOException {
+        try (RunJournal journal = RunJournal.open(dir)) {
+            journal.started(ANN);
+            journal.finished(ANN, Decision.SEND, true);
+            journal.started(BOB);
+        }
+        Path segment = onlySegment();
+        List<String> lines = Files.readAllLines(segment, StandardCharsets.UTF_8);
+        String last = lines.get(lines.size() - 1);
+        // crash mid-write: only part of the last record reached the disk
+        lines.set(lines.size() - 1, last.substring(0, last.length() - 3));
+        Files.writeString(segment, String.join("\n", lines), StandardCharsets.UTF_8);
+
+        try (RunJournal resumed = RunJournal.open(dir)) {
+            assertEquals(Set.of(ANN), resumed.processed());
+            assertEquals(ANN, resumed.lastProcessed());
+        }
+    }
+
+    @Test
+    void lineWithBadChecksumIsSkipped() throws IOException {
+        try (RunJournal journal = RunJournal.open(dir)) {
+            journal.finished(ANN, Decision.SEND, true);
+            journal.finished(BOB, Decision.SEND, true);
+            journal.finished(CARL, Decision.SEND, true);
+        }
+        Path segment = onlySegment();
+        List<String> lines = Files.readAllLines(segment, StandardCharsets.UTF_8);
+        lines.set(1, lines.get(1).replace("Bob", "Bib"));
+        Files.write(segment, lines, StandardCharsets.UTF_8);
+        Files.writeString(segment, "garbage without tabs\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        try (RunJournal resumed = RunJournal.open(dir)) {
+            assertEquals(Set.of(ANN, CARL), resumed.processed());
+        }
+    }
+
+    @Test
+    void namesWithTabsAndNewlinesSurviveReplay() {
+        FriendCursor.FriendKey odd = new FriendCursor.FriendKey("A\tB\nC \\ D", "row\\9");
+        try (RunJournal journal = RunJournal.open(dir)) {
+            journal.finished(odd, Decision.SEND, true);
+        }
+
+        try (RunJournal resumed = RunJournal.open(dir)) {
+            assertEquals(Set.of(odd), resumed.processed());
+        }
+    }
+
+    @Test
+    void completedRunIsArchivedAndNextRunStartsFresh() throws IOException {
+        try (RunJournal journal = RunJournal.open(dir)) {
+            journal.finished(ANN, Decision.SEND, true);
+            journal.complete();
+            assertTrue(journal.processed().isEmpty());
+        }
+
+        try (RunJournal next = RunJournal.open(dir)) {
+            assertTrue(next.processed().isEmpty());
+            assertNull(next.lastProcessed());
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(1, files.filter(p -> p.getFileName().toString().startsWith("archive-")).count());
+        }
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> segments = files.filter(p -> p.getFileName().toString().startsWith("segment-")).toList();
+            assertEquals(1, segments.size());
+            return segments.get(0);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeywordMatcherTest {
+
+    @Test
+    void findsTokensInsideText() {
+        KeywordMatcher m = KeywordMatcher.compile(List.of("hers", "his", "she", "he"));
+        assertEquals("hers", m.find("ushers"));
+        assertEquals("his", m.find("this"));
+        assertEquals("she", m.find("ushe"));
+        assertNull(m.find("hx sx"));
+    }
+
+    @Test
+    void failLinkRestartsInsideAPartialMatch() {
+        // "aaab": the mismatch after "aa" must fall back to "a", not to the root
+        KeywordMatcher m = KeywordMatcher.compile(List.of("aab"));
+        assertTrue(m.matches("aaab"));
+        assertTrue(m.matches("xaaaab"));
+        assertFalse(m.matches("abab"));
+    }
+
+    @Test
+    void tokenEndingOnTheFailChainIsReported() {
+        // reaching "abc" also means "bc" occurred, although "abcd" never completes
+        KeywordMatcher m = KeywordMatcher.compile(List.of("abcd", "bc"));
+        assertEquals("bc", m.find("xabcx"));
+        assertEquals(1, m.indexIn("abce"));
+    }
+
+    @Test
+    void firstListedTokenWins() {
+        assertEquals("family", KeywordMatcher.compile(List.of("family", "mil")).find("my family"));
+        assertEquals("mil", KeywordMatcher.compile(List.of("mil", "family")).find("my family"));
+        // the later-listed token occurs first in the text
+        assertEquals("best", KeywordMatcher.compile(List.of("best", "zoe")).find("Zoe Best Friend"));
+    }
+
+    @Test
+    void foldsCasePerCodePoint() {
+        KeywordMatcher m = KeywordMatcher.compile(List.of("Best"));
+        assertTrue(m.matches("BEST friend"));
+        assertTrue(m.matches("best"));
+        assertTrue(m.matches("Beſt")); // long s upper-cases to S
+        assertEquals("Best", m.find("my bEsT"));
+    }
+
+    @Test
+    void matchesSupplementaryCharactersWhole() {
+        KeywordMatcher m = KeywordMatcher.compile(List.of("🔥"));
+        assertTrue(m.matches("on 🔥 fire"));
+        assertFalse(m.matches("\uD83D")); // lone high surrogate of the emoji
+    }
+
+    @Test
+    void dropsBlankAndDuplicateTokens() {
+        KeywordMatcher m = KeywordMatcher.compile(Arrays.asList(" Best ", null, "", "  ", "BEST", "mom"));
+        assertEquals(List.of("Best", "mom"), m.tokens());
+        assertEquals(1, m.indexIn("Mom"));
+    }
+
+    @Test
+    void emptyMatcherMatchesNothing() {
+        KeywordMatcher m = KeywordMatcher.empty();
+        assertTrue(m.isEmpty());
+        assertFalse(m.matches("anything"));
+        assertEquals(-1, m.indexIn(null));
+    }
+}
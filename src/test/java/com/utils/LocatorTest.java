@@ -0,0 +1,133 @@
+package com.utils;
+
+import io.appium.java_client.AppiumBy;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.InvalidSelectorException;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocatorTest {
+
+    // nodes in document order: 0 frame, 1 section, 2 header, 3 row u1, 4 "Ann", 5 "x", 6 row u2, 7 "Al", 8 button
+    private static final UiSnapshot UI = UiSnapshot.parse("""
+            <hierarchy>
+              <android.widget.FrameLayout class="android.widget.FrameLayout" bounds="[0,0][1080,2400]">
+                <android.view.View class="android.view.View" resource-id="A" bounds="[0,400][1080,800]">
+                  <android.widget.TextView class="android.widget.TextView" text="A" bounds="[40,410][200,470]"/>
+                  <android.view.View class="android.view.View" resource-id="select_recipients_friends_u1" bounds="[0,480][1080,640]">
+                    <android.widget.TextView class="android.widget.TextView" text="Ann" bounds="[200,525][900,595]"/>
+                    <android.widget.TextView class="android.widget.TextView" text="x" bounds="[960,530][1020,590]"/>
+                  </android.view.View>
+                  <android.view.View class="android.view.View" resource-id="select_recipients_friends_u2" bounds="[0,640][1080,800]">
+                    <android.widget.TextView class="android.widget.TextView" text="Al" bounds="[200,685][900,755]"/>
+                  </android.view.View>
+                </android.view.View>
+                <android.widget.Button class="android.widget.Button" content-desc="Send" bounds="[900,2200][1060,2300]"/>
+              </android.widget.FrameLayout>
+            </hierarchy>
+            """);
+
+    @Test
+    void singleStepLocatorsCompileToNativeStrategies() {
+        assertEquals("id", Locator.compile("//*[@resource-id='A']").strategy());
+        assertEquals("accessibilityId", Locator.compile("//*[@content-desc=\"Send\"]").strategy());
+        assertEquals("className", Locator.compile("//android.widget.Button").strategy());
+
+        Locator rows = Locator.compile("//android.view.View[starts-with(@resource-id,'select_recipients')]");
+        assertEquals("uiautomator", rows.strategy());
+        assertEquals(AppiumBy.androidUIAutomator("new UiSelector().className(\"android.view.View\")"
+                + ".resourceIdMatches(\"(?s)\\\\Qselect_recipients\\\\E.*\")"), rows.deviceBy());
+    }
+
+    @Test
+    void locatorsWithoutNativeEquivalentStayXPath() {
+        // several steps, positions and bare tags have no UiSelector with the same semantics
+        assertEquals("xpath", Locator.compile("//android.view.View//android.widget.TextView").strategy());
+        assertEquals("xpath", Locator.compile("//android.widget.TextView[2]").strategy());
+        assertEquals("xpath", Locator.compile("//TextView[@text='A']").strategy());
+        assertEquals("xpath", Locator.compile("//*[@text='A'] | //*[@text='Al']").strategy());
+    }
+
+    @Test
+    void unsupportedXPathIsKeptButNotEvaluatedLocally() {
+        Locator last = Locator.compile("//android.widget.TextView[last()]");
+        assertEquals("xpath", last.strategy());
+        assertEquals(By.xpath("//android.widget.TextView[last()]"), last.deviceBy());
+        assertFalse(last.supportsSnapshot());
+        assertThrows(IllegalStateException.class, () -> last.findIn(UI, -1));
+
+        assertFalse(Locator.compile("//*[@bounds='[0,0][1,1]']").supportsSnapshot()); // attribute not in snapshots
+    }
+
+    @Test
+    void evaluatesPredicatesAgainstSnapshot() {
+        assertArrayEquals(new int[]{3, 6}, Locator.compile("//android.view.View[starts-with(@resource-id,'select_')]").findIn(UI, -1));
+        assertArrayEquals(new int[]{8}, Locator.compile("//*[@content-desc='Send']").findIn(UI, -1));
+        assertArrayEquals(new int[]{4, 7}, Locator.compile("//*[contains(@text,'A')][matches(@text,'^A.$|^Ann$')]").findIn(UI, -1));
+        assertArrayEquals(new int[]{2, 4, 7}, Locator.compile("//*[@text='A'] | //*[starts-with(@text,\"A\")]").findIn(UI, -1));
+    }
+
+    @Test
+    void positionsCountPerParentAndIndexCountsOverall() {
+        // first TextView child of each parent: the header and each row's name
+        assertArrayEquals(new int[]{2, 4, 7}, Locator.compile("//android.widget.TextView[1]").findIn(UI, -1));
+        assertArrayEquals(new int[]{4}, Locator.compile("(//android.widget.TextView)[2]").findIn(UI, -1));
+        assertArrayEquals(new int[0], Locator.compile("(//android.widget.TextView)[9]").findIn(UI, -1));
+    }
+
+    @Test
+    void relativePathSearchesBelowRoot() {
+        Locator name = Locator.compile(".//android.widget.TextView[1]");
+        assertEquals(4, name.findFirstIn(UI, 3));
+        assertEquals(7, name.findFirstIn(UI, 6));
+        assertEquals(-1, name.findFirstIn(UI, 8));
+        assertArrayEquals(new int[]{1}, Locator.compile("/android.widget.FrameLayout/android.view.View").findIn(UI, -1));
+    }
+
+    @Test
+    void attributeEqualsQuotesAnyValue() {
+        assertEquals("//android.view.View[@resource-id=\"O'Brien\"]",
+                Locator.attributeEquals("android.view.View", "resource-id", "O'Brien").xpath());
+        Locator both = Locator.attributeEquals("android.widget.TextView", "text", "say \"hi\" o'k");
+        assertEquals("//android.widget.TextView[@text=concat('say \"hi\" o', \"'\", 'k')]", both.xpath());
+        assertEquals("xpath", both.strategy());
+    }
+
+    @Test
+    void switchesToXPathWhenServerRejectsNativeSelector() {
+        Locator rows = Locator.compile("//android.view.View[starts-with(@resource-id,'select_recipients')]");
+        List<By> sent = new ArrayList<>();
+        SearchContext server = new SearchContext() {
+            @Override
+            public List<WebElement> findElements(By by) {
+                sent.add(by);
+                if (!(by instanceof By.ByXPath)) throw new InvalidSelectorException("UiSelector not supported");
+                return List.of();
+            }
+
+            @Override
+            public WebElement findElement(By by) {
+                throw new UnsupportedOperationException();
+            }
+        };
+
+        rows.findElements(server);
+        rows.findElements(server);
+
+        assertEquals(3, sent.size()); // native once, then XPath for good
+        assertTrue(sent.get(0).toString().contains("UiSelector"));
+        assertEquals(By.xpath(rows.xpath()), sent.get(1));
+        assertEquals(By.xpath(rows.xpath()), sent.get(2));
+        assertEquals("xpath", rows.strategy());
+    }
+}
@@ -0,0 +1,89 @@
+package com.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static com.utils.Metrics.Histogram.index;
+import static com.utils.Metrics.Histogram.lowerMicros;
+import static com.utils.Metrics.Histogram.upperMicros;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsTest {
+
+    @Test
+    void smallValuesHaveOneBucketEach() {
+        for (int micros = 0; micros < 32; micros++) {
+            assertEquals(micros, index(micros));
+            assertEquals(micros, lowerMicros(micros));
+            assertEquals(micros + 1, upperMicros(micros));
+        }
+    }
+
+    @Test
+    void bucketWidthDoublesWithEachPowerOfTwo() {
+        assertEquals(32, index(32));
+        assertEquals(63, index(63));
+        // from 64 on, 32 buckets per power of two: width 2, then 4, ...
+        assertEquals(64, index(64));
+        assertEquals(64, index(65));
+        assertEquals(65, index(66));
+        assertEquals(95, index(127));
+        assertEquals(96, index(128));
+        assertEquals(96, index(131));
+        assertEquals(97, index(132));
+        assertEquals(128, lowerMicros(index(128)));
+        assertEquals(132, upperMicros(index(128)));
+    }
+
+    @Test
+    void everyValueLiesInsideItsBucket() {
+        for (long micros = 0; micros < 200_000; micros++) assertInsideBucket(micros);
+        for (int bit = 5; bit < 54; bit++) {
+            long power = 1L << bit;
+            assertInsideBucket(power - 1);
+            assertInsideBucket(power);
+            assertInsideBucket(power + 1);
+        }
+        assertInsideBucket(Long.MAX_VALUE / 1_000); // the largest duration record() can produce
+    }
+
+    @Test
+    void bucketsAreContiguousWithBoundedRelativeError() {
+        for (int i = 0; i < index(Long.MAX_VALUE / 1_000); i++) {
+            assertEquals(upperMicros(i), lowerMicros(i + 1), "gap after bucket " + i);
+            if (i >= 32) {
+                long width = upperMicros(i) - lowerMicros(i);
+                assertTrue(width * 32 <= lowerMicros(i), "bucket " + i + " wider than 1/32 of its value");
+            }
+        }
+    }
+
+    @Test
+    void quantilesAreWithinOneBucketAndCappedAtMax() {
+        Metrics.Histogram h = new Metrics.Histogram();
+        for (int ms = 1; ms <= 100; ms++) h.record(ms * 1_000_000L);
+
+        assertEquals(100, h.count());
+        assertEquals(100_000_000L, h.maxNanos());
+        assertEquals(5_050_000_000L, h.totalNanos());
+        assertWithinBucket(50_000_000L, h.quantileNanos(0.5));
+        assertWithinBucket(95_000_000L, h.quantileNanos(0.95));
+        assertWithinBucket(100_000_000L, h.quantileNanos(1.0));
+        assertEquals(0, new Metrics.Histogram().quantileNanos(0.5));
+
+        Metrics.Histogram single = new Metrics.Histogram();
+        single.record(64_000); // bucket [64, 66) us: its midpoint would overstate the only sample
+        assertEquals(64_000, single.quantileNanos(0.5));
+    }
+
+    private static void assertInsideBucket(long micros) {
+        int i = index(micros);
+        assertTrue(lowerMicros(i) <= micros && micros < upperMicros(i),
+                micros + " us outside bucket " + i + " [" + lowerMicros(i) + ", " + upperMicros(i) + ")");
+    }
+
+    private static void assertWithinBucket(long expectedNanos, long actualNanos) {
+        assertTrue(Math.abs(actualNanos - expectedNanos) <= expectedNanos / 32,
+                "expected about " + expectedNanos + " ns, got " + actualNanos);
+    }
+}